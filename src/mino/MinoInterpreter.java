@@ -19,9 +19,12 @@ package mino;
 
 import java.io.*;
 
+import mino.bytecode.VirtualMachine;
 import mino.exception.*;
 import mino.language_mino.*;
 import mino.structure.ClassTable;
+import mino.structure.InternTable;
+import mino.structure.MemoCache;
 import mino.walker.*;
 
 public class MinoInterpreter {
@@ -30,26 +33,169 @@ public class MinoInterpreter {
             String[] args) {
 
         Reader in = null;
+        String inputFileName = null;
+        String engineName = "walker";
+        boolean disassemble = false;
+        boolean inlineCacheStatistics = false;
+        InternTable.Policy interningPolicy = InternTable.Policy.LRU;
+        int interningSize = 4096;
+        boolean interningStatistics = false;
+        MemoCache.Policy memoPolicy = MemoCache.Policy.NONE;
+        int memoSize = MemoCache.DEFAULT_SIZE;
+        boolean memoStatistics = false;
+        int outputBufferSize = OutputBuffer.DEFAULT_SIZE;
+        long outputFlushInterval = OutputBuffer.DEFAULT_INTERVAL;
+        long stackMemory = -1;
 
-        if (args.length == 0) {
+        for (String arg : args) {
+            if (arg.startsWith("--engine=")) {
+                engineName = arg.substring("--engine=".length());
+            }
+            else if (arg.equals("--disassemble")) {
+                disassemble = true;
+            }
+            else if (arg.equals("--inline-cache-stats")) {
+                inlineCacheStatistics = true;
+            }
+            else if (arg.startsWith("--interning=")) {
+                interningPolicy = getInterningPolicy(arg
+                        .substring("--interning=".length()));
+            }
+            else if (arg.startsWith("--interning-size=")) {
+                try {
+                    interningSize = Integer.parseInt(arg
+                            .substring("--interning-size=".length()));
+                }
+                catch (NumberFormatException e) {
+                    interningSize = 0;
+                }
+
+                if (interningSize <= 0) {
+                    System.err.println("COMMAND-LINE ERROR: "
+                            + "invalid interning size.");
+                    System.exit(1);
+                }
+            }
+            else if (arg.equals("--interning-stats")) {
+                interningStatistics = true;
+            }
+            else if (arg.startsWith("--memo=")) {
+                memoPolicy = getMemoPolicy(arg.substring("--memo=".length()));
+            }
+            else if (arg.startsWith("--memo-size=")) {
+                try {
+                    memoSize = Integer.parseInt(arg
+                            .substring("--memo-size=".length()));
+                }
+                catch (NumberFormatException e) {
+                    memoSize = 0;
+                }
+
+                if (memoSize <= 0) {
+                    System.err.println("COMMAND-LINE ERROR: "
+                            + "invalid memo size.");
+                    System.exit(1);
+                }
+            }
+            else if (arg.equals("--memo-stats")) {
+                memoStatistics = true;
+            }
+            else if (arg.startsWith("--output-buffer=")) {
+                try {
+                    outputBufferSize = Integer.parseInt(arg
+                            .substring("--output-buffer=".length()));
+                }
+                catch (NumberFormatException e) {
+                    outputBufferSize = 0;
+                }
+
+                if (outputBufferSize <= 0) {
+                    System.err.println("COMMAND-LINE ERROR: "
+                            + "invalid output buffer size.");
+                    System.exit(1);
+                }
+            }
+            else if (arg.startsWith("--output-flush-interval=")) {
+                try {
+                    outputFlushInterval = Long.parseLong(arg
+                            .substring("--output-flush-interval=".length()));
+                }
+                catch (NumberFormatException e) {
+                    outputFlushInterval = -1;
+                }
+
+                if (outputFlushInterval < 0) {
+                    System.err.println("COMMAND-LINE ERROR: "
+                            + "invalid output flush interval.");
+                    System.exit(1);
+                }
+            }
+            else if (arg.startsWith("--stack-memory=")) {
+                try {
+                    stackMemory = Long.parseLong(arg
+                            .substring("--stack-memory=".length())) << 20;
+                }
+                catch (NumberFormatException e) {
+                    stackMemory = 0;
+                }
+
+                if (stackMemory <= 0) {
+                    System.err.println("COMMAND-LINE ERROR: "
+                            + "invalid stack memory.");
+                    System.exit(1);
+                }
+            }
+            else if (inputFileName == null) {
+                inputFileName = arg;
+            }
+            else {
+                System.err.println("COMMAND-LINE ERROR: too many arguments.");
+                System.exit(1);
+            }
+        }
+
+        InterpreterEngine interpreterEngine = newInterpreterEngine(engineName,
+                disassemble, stackMemory > 0 ? stackMemory
+                        : VirtualMachine.DEFAULT_STACK_MEMORY);
+        if (interpreterEngine == null) {
+            System.err.println("COMMAND-LINE ERROR: unknown engine '"
+                    + engineName + "'.");
+            System.exit(1);
+        }
+
+        interpreterEngine.setOutputBuffer(new OutputBuffer(outputBufferSize,
+                outputFlushInterval));
+        interpreterEngine.setMemoPolicy(memoPolicy, memoSize);
+
+        if (disassemble
+                && !(interpreterEngine instanceof BytecodeInterpreterEngine)) {
+            System.err.println("COMMAND-LINE ERROR: "
+                    + "--disassemble requires --engine=vm.");
+            System.exit(1);
+        }
+
+        if (stackMemory > 0
+                && !(interpreterEngine instanceof BytecodeInterpreterEngine)) {
+            System.err.println("COMMAND-LINE ERROR: "
+                    + "--stack-memory requires --engine=vm.");
+            System.exit(1);
+        }
+
+        if (inputFileName == null) {
             // read from standard input
             in = new InputStreamReader(System.in);
         }
-        else if (args.length == 1) {
+        else {
             // read from given file
             try {
-                in = new FileReader(args[0]);
+                in = new FileReader(inputFileName);
             }
             catch (FileNotFoundException e) {
-                System.err.println("INPUT ERROR: file not found '" + args[0]
-                        + "'.");
+                System.err.println("INPUT ERROR: file not found '"
+                        + inputFileName + "'.");
                 System.exit(1);
             }
         }
-        else {
-            System.err.println("COMMAND-LINE ERROR: too many arguments.");
-            System.exit(1);
-        }
 
         Node syntaxTree = null;
 
@@ -59,11 +205,11 @@ public class MinoInterpreter {
         }
         catch (IOException e) {
             String inputName;
-            if (args.length == 0) {
+            if (inputFileName == null) {
                 inputName = "standard input";
             }
             else {
-                inputName = "file '" + args[0] + "'";
+                inputName = "file '" + inputFileName + "'";
             }
             System.err.println("INPUT ERROR: " + e.getMessage()
                     + " while reading " + inputName + ".");
@@ -78,8 +224,8 @@ public class MinoInterpreter {
             System.exit(1);
         }
 
-        InterpreterEngine interpreterEngine = new InterpreterEngine();
-        ClassTable classTable = new ClassTable();
+        ClassTable classTable = new ClassTable(interningPolicy,
+                interningSize);
 
         try {
             //Fill classTable
@@ -93,6 +239,15 @@ public class MinoInterpreter {
 
             SemanticAnalysis.verify(syntaxTree, classTable);
 
+            //Resolve literals and class references
+            Linker.link(syntaxTree, classTable);
+
+            //Fold constant expressions
+            ConstantFolder.fold(syntaxTree, classTable);
+
+            //Bind call sites with a single implementation
+            ClassHierarchyAnalysis.analyze(syntaxTree, classTable);
+
             //Fill virtual tables of each class and print it
             VirtualTablePrinter.print(syntaxTree, classTable);
 
@@ -100,18 +255,102 @@ public class MinoInterpreter {
             interpreterEngine.visit(syntaxTree, classTable);
         }
         catch (InterpreterException e) {
-            System.out.flush();
+            interpreterEngine.flushOutput();
             System.err.println("INTERPRETER ERROR: " + e.getMessage() + ".");
             interpreterEngine.printStackTrace();
+            if (inlineCacheStatistics) {
+                interpreterEngine.printInlineCacheStatistics();
+            }
+            if (interningStatistics) {
+                classTable.printInterningStatistics();
+            }
+            if (memoStatistics) {
+                interpreterEngine.printMemoStatistics();
+            }
             System.exit(1);
         }catch(SemanticException e){
-            System.out.flush();
+            interpreterEngine.flushOutput();
             System.err.println("SEMANTIC ERROR: " + e.getMessage() + ".");
             System.exit(1);
         }
+        finally {
+            // keep what was printed before any other failure, such as a
+            // division by zero or a StackOverflowError
+            interpreterEngine.flushOutput();
+        }
+
+        if (inlineCacheStatistics) {
+            interpreterEngine.flushOutput();
+            interpreterEngine.printInlineCacheStatistics();
+        }
+
+        if (interningStatistics) {
+            interpreterEngine.flushOutput();
+            classTable.printInterningStatistics();
+        }
+
+        if (memoStatistics) {
+            interpreterEngine.flushOutput();
+            interpreterEngine.printMemoStatistics();
+        }
 
         // finish normally
+        interpreterEngine.flushOutput();
         System.exit(0);
     }
 
+    private static InternTable.Policy getInterningPolicy(
+            String policyName) {
+
+        for (InternTable.Policy policy : InternTable.Policy.values()) {
+            if (policy.name().toLowerCase().equals(policyName)) {
+                return policy;
+            }
+        }
+
+        System.err.println("COMMAND-LINE ERROR: unknown interning policy '"
+                + policyName + "'.");
+        System.exit(1);
+        return null;
+    }
+
+    private static MemoCache.Policy getMemoPolicy(
+            String policyName) {
+
+        for (MemoCache.Policy policy : MemoCache.Policy.values()) {
+            if (policy.name().toLowerCase().equals(policyName)) {
+                return policy;
+            }
+        }
+
+        System.err.println("COMMAND-LINE ERROR: unknown memo policy '"
+                + policyName + "'.");
+        System.exit(1);
+        return null;
+    }
+
+    private static InterpreterEngine newInterpreterEngine(
+            String engineName,
+            boolean disassemble,
+            long stackMemory) {
+
+        if (engineName.equals("walker")) {
+            return new InterpreterEngine();
+        }
+        else if (engineName.equals("tree")) {
+            return new TreeInterpreterEngine(false);
+        }
+        else if (engineName.equals("specializing")) {
+            return new TreeInterpreterEngine(true);
+        }
+        else if (engineName.equals("vm")) {
+            return new BytecodeInterpreterEngine(disassemble, stackMemory);
+        }
+        else if (engineName.equals("jvm")) {
+            return new JvmInterpreterEngine();
+        }
+
+        return null;
+    }
+
 }
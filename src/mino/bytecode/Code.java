@@ -0,0 +1,64 @@
+/* This file is part of Mino.
+ *
+ * See the NOTICE file distributed with this work for copyright information.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package mino.bytecode;
+
+/**
+ * Compiled body of a method, or of the main program.
+ */
+public class Code {
+
+    private final String name;
+
+    private final byte[] instructions;
+
+    private final Object[] constants;
+
+    private final int maxStack;
+
+    Code(
+            String name,
+            byte[] instructions,
+            Object[] constants,
+            int maxStack) {
+
+        this.name = name;
+        this.instructions = instructions;
+        this.constants = constants;
+        this.maxStack = maxStack;
+    }
+
+    public String getName() {
+
+        return this.name;
+    }
+
+    public byte[] getInstructions() {
+
+        return this.instructions;
+    }
+
+    public Object[] getConstants() {
+
+        return this.constants;
+    }
+
+    public int getMaxStack() {
+
+        return this.maxStack;
+    }
+}
@@ -0,0 +1,173 @@
+/* This file is part of Mino.
+ *
+ * See the NOTICE file distributed with this work for copyright information.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package mino.bytecode;
+
+import java.util.*;
+
+/**
+ * Accumulates instructions and constants for a single Code, and keeps
+ * track of the maximum stack depth.
+ */
+public class CodeBuilder {
+
+    private static final int MAX_OPERAND = 0xFFFF;
+
+    private final String name;
+
+    private byte[] instructions = new byte[64];
+
+    private int length;
+
+    private final List<Object> constants = new ArrayList<Object>();
+
+    private final Map<Object, Integer> constantToIndexMap = new IdentityHashMap<Object, Integer>();
+
+    private int stackDepth;
+
+    private int maxStack;
+
+    public CodeBuilder(
+            String name) {
+
+        this.name = name;
+    }
+
+    public int addConstant(
+            Object constant) {
+
+        Integer index = this.constantToIndexMap.get(constant);
+        if (index == null) {
+            index = this.constants.size();
+            checkOperand(index);
+            this.constants.add(constant);
+            this.constantToIndexMap.put(constant, index);
+        }
+
+        return index;
+    }
+
+    public void emit(
+            int opcode) {
+
+        emitByte(opcode);
+        adjustStack(opcode, 0);
+    }
+
+    public void emit(
+            int opcode,
+            int operand) {
+
+        emitByte(opcode);
+        emitOperand(operand);
+        adjustStack(opcode, 0);
+    }
+
+    public void emit(
+            int opcode,
+            int operand1,
+            int operand2) {
+
+        emitByte(opcode);
+        emitOperand(operand1);
+        emitOperand(operand2);
+        adjustStack(opcode, operand2);
+    }
+
+    /**
+     * Emits a jump to a target that is not yet known, and returns the offset
+     * of its target operand, to be given to patchJump.
+     */
+    public int emitForwardJump(
+            int opcode) {
+
+        emitByte(opcode);
+        int operandOffset = this.length;
+        emitOperand(0);
+        adjustStack(opcode, 0);
+        return operandOffset;
+    }
+
+    public int emitForwardJump(
+            int opcode,
+            int operand2) {
+
+        int operandOffset = emitForwardJump(opcode);
+        emitOperand(operand2);
+        return operandOffset;
+    }
+
+    /**
+     * Makes a forward jump target the next emitted instruction.
+     */
+    public void patchJump(
+            int operandOffset) {
+
+        checkOperand(this.length);
+        this.instructions[operandOffset] = (byte) (this.length >> 8);
+        this.instructions[operandOffset + 1] = (byte) this.length;
+    }
+
+    public int getOffset() {
+
+        return this.length;
+    }
+
+    public Code toCode() {
+
+        return new Code(this.name, Arrays.copyOf(this.instructions,
+                this.length), this.constants.toArray(), this.maxStack);
+    }
+
+    private void emitByte(
+            int value) {
+
+        if (this.length == this.instructions.length) {
+            this.instructions = Arrays.copyOf(this.instructions,
+                    this.length * 2);
+        }
+
+        this.instructions[this.length++] = (byte) value;
+    }
+
+    private void emitOperand(
+            int operand) {
+
+        checkOperand(operand);
+        emitByte(operand >> 8);
+        emitByte(operand);
+    }
+
+    private void adjustStack(
+            int opcode,
+            int argCount) {
+
+        this.stackDepth += Opcode.getStackEffect(opcode, argCount);
+        if (this.stackDepth > this.maxStack) {
+            this.maxStack = this.stackDepth;
+        }
+    }
+
+    private void checkOperand(
+            int operand) {
+
+        if (operand > MAX_OPERAND) {
+            throw new RuntimeException("body of " + this.name
+                    + " is too large to be compiled");
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/* This file is part of Mino.
+ *
+ * See the NOTICE file distributed with this work for copyright information.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package mino.bytecode;
+
+import mino.language_mino.*;
+import mino.structure.*;
+
+/**
+ * Produces a readable listing of a Code, one instruction per line.
+ */
+public class Disassembler {
+
+    private Disassembler() {
+
+    }
+
+    public static String disassemble(
+            Code code) {
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("=== ").append(code.getName()).append(" (max stack ")
+                .append(code.getMaxStack()).append(") ===\n");
+
+        byte[] instructions = code.getInstructions();
+        Object[] constants = code.getConstants();
+        int pc = 0;
+        while (pc < instructions.length) {
+            int opcode = instructions[pc];
+            sb.append(String.format("%5d  %-16s", pc, Opcode.getName(opcode)));
+            pc++;
+
+            int operandCount = Opcode.getOperandCount(opcode);
+            for (int i = 0; i < operandCount; i++) {
+                int operand = ((instructions[pc] & 0xFF) << 8)
+                        | (instructions[pc + 1] & 0xFF);
+                pc += 2;
+
+                if (i == 0 && Opcode.isJump(opcode)
+                        || i == 1 && opcode == Opcode.FOR_NEXT) {
+                    sb.append(" -> ").append(operand);
+                }
+                else if (i == 1 && (opcode == Opcode.CALL
+                        || opcode == Opcode.SELF_CALL)) {
+                    sb.append(" argc=").append(operand);
+                }
+                else if (opcode == Opcode.LOAD_VAR
+                        || opcode == Opcode.STORE_VAR
+                        || opcode == Opcode.LOAD_COUNTER
+                        || i == 0 && (opcode == Opcode.FOR_START
+                                || opcode == Opcode.FOR_NEXT)) {
+                    sb.append(" slot ").append(operand);
+                }
+                else if (opcode == Opcode.LOAD_FIELD
+                        || opcode == Opcode.STORE_FIELD) {
+                    sb.append(" offset ").append(operand);
+                }
+                else {
+                    sb.append(" #").append(operand).append(" ")
+                            .append(describe(constants[operand]));
+                }
+            }
+
+            sb.append('\n');
+        }
+
+        return sb.toString();
+    }
+
+    private static String describe(
+            Object constant) {
+
+        if (constant == null) {
+            return "null";
+        }
+        else if (constant instanceof StringInstance) {
+            return "\"" + ((StringInstance) constant).getValue() + "\"";
+        }
+        else if (constant instanceof IntegerInstance) {
+            return constant.toString();
+        }
+        else if (constant instanceof FloatInstance) {
+            return ((FloatInstance) constant).getValue().toString();
+        }
+        else if (constant instanceof BooleanInstance) {
+            return ((BooleanInstance) constant).getValue().toString();
+        }
+        else if (constant instanceof ClassInfo) {
+            return "class " + ((ClassInfo) constant).getName();
+        }
+        else if (constant instanceof Token) {
+            Token token = (Token) constant;
+            return "'" + token.getText() + "' (line " + token.getLine() + ")";
+        }
+        else if (constant instanceof Folding) {
+            return "folding of "
+                    + describe(((Folding) constant).getToken());
+        }
+
+        return constant.toString();
+    }
+}
@@ -0,0 +1,200 @@
+/* This file is part of Mino.
+ *
+ * See the NOTICE file distributed with this work for copyright information.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package mino.bytecode;
+
+/**
+ * Instruction set of the Mino virtual machine. Each instruction is one
+ * opcode byte followed by zero, one or two unsigned 16-bit operands. Unless
+ * noted otherwise, the operand is an index in the constant pool.
+ */
+public final class Opcode {
+
+    /** Pushes a constant Instance, possibly null. */
+    public static final int CONST = 0;
+
+    /** Pushes the receiver of the current frame. */
+    public static final int SELF = 1;
+
+    /** Pushes the value of the frame slot given as operand. */
+    public static final int LOAD_VAR = 2;
+
+    /** Pops a value into the frame slot given as operand. */
+    public static final int STORE_VAR = 3;
+
+    /** Pushes the receiver field at the offset given as operand. */
+    public static final int LOAD_FIELD = 4;
+
+    /** Pops a value into the receiver field at the offset given as operand. */
+    public static final int STORE_FIELD = 5;
+
+    /** Pushes a new instance of a ClassInfo constant. */
+    public static final int NEW = 6;
+
+    /** Pops two values and pushes whether they are the same instance. */
+    public static final int IS = 7;
+
+    /** Pops a value and pushes whether it is null or of a ClassInfo constant. */
+    public static final int ISA = 8;
+
+    /** Pops a Boolean and pushes its negation. */
+    public static final int NOT = 9;
+
+    /** Binary operators. The operand is the operator Token. */
+    public static final int EQ = 10;
+
+    public static final int NOT_EQ = 11;
+
+    public static final int LT = 12;
+
+    public static final int LTE = 13;
+
+    public static final int GT = 14;
+
+    public static final int GTE = 15;
+
+    public static final int ADD = 16;
+
+    public static final int MINUS = 17;
+
+    public static final int MULT = 18;
+
+    public static final int DIV = 19;
+
+    public static final int MODUL = 20;
+
+    /**
+     * Pops the arguments and the receiver, and pushes the result of the call.
+     * Operands are the method NId and the argument count.
+     */
+    public static final int CALL = 21;
+
+    /** Same as CALL, on the receiver of the current frame. */
+    public static final int SELF_CALL = 22;
+
+    /** Discards the top of the stack. */
+    public static final int POP = 23;
+
+    /** Jumps to an absolute code offset. */
+    public static final int JUMP = 24;
+
+    /** Pops a value and jumps to the offset unless it is true. */
+    public static final int JUMP_IF_NOT_TRUE = 25;
+
+    /**
+     * Pops a value and jumps to the first operand if it is false. A null
+     * value is reported at the Token of the second operand.
+     */
+    public static final int JUMP_IF_FALSE = 26;
+
+    /** Returns from the current method. */
+    public static final int RETURN = 27;
+
+    /** Pops the return value and returns from the current method. */
+    public static final int RETURN_VALUE = 28;
+
+    /**
+     * Replaces the value on top of the stack, the operand of the Folding
+     * given as operand, by the value of the simplified expression.
+     */
+    public static final int SIMPLIFY = 29;
+
+    /**
+     * Pops the step, the end and the start of a for loop, starts the counter
+     * in the frame slot of the first operand and pushes whether the loop
+     * runs at least once. A null step stands for 1. Errors are reported at
+     * the Token of the second operand.
+     */
+    public static final int FOR_START = 30;
+
+    /**
+     * Moves the counter in the frame slot of the first operand to its next
+     * value, and jumps to the second operand while it is in the range.
+     */
+    public static final int FOR_NEXT = 31;
+
+    /** Pushes the Integer value of the counter in the slot given as operand. */
+    public static final int LOAD_COUNTER = 32;
+
+    private static final String[] NAMES = { "CONST", "SELF", "LOAD_VAR",
+            "STORE_VAR", "LOAD_FIELD", "STORE_FIELD", "NEW", "IS", "ISA", "NOT",
+            "EQ", "NOT_EQ", "LT", "LTE", "GT", "GTE", "ADD", "MINUS", "MULT",
+            "DIV", "MODUL", "CALL", "SELF_CALL", "POP", "JUMP",
+            "JUMP_IF_NOT_TRUE", "JUMP_IF_FALSE", "RETURN", "RETURN_VALUE",
+            "SIMPLIFY", "FOR_START", "FOR_NEXT", "LOAD_COUNTER" };
+
+    private static final int[] OPERAND_COUNTS = { 1, 0, 1, 1, 1, 1, 1, 0, 1,
+            1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 2, 2, 0, 1, 1, 2, 0, 0, 1, 2, 2,
+            1 };
+
+    private Opcode() {
+
+    }
+
+    public static String getName(
+            int opcode) {
+
+        return NAMES[opcode];
+    }
+
+    public static int getOperandCount(
+            int opcode) {
+
+        return OPERAND_COUNTS[opcode];
+    }
+
+    public static boolean isJump(
+            int opcode) {
+
+        return opcode == JUMP || opcode == JUMP_IF_NOT_TRUE
+                || opcode == JUMP_IF_FALSE;
+    }
+
+    /**
+     * Returns the net number of values the instruction pushes on the stack.
+     */
+    public static int getStackEffect(
+            int opcode,
+            int argCount) {
+
+        switch (opcode) {
+        case CONST:
+        case SELF:
+        case LOAD_VAR:
+        case LOAD_FIELD:
+        case NEW:
+        case LOAD_COUNTER:
+            return 1;
+        case ISA:
+        case NOT:
+        case SIMPLIFY:
+        case JUMP:
+        case RETURN:
+        case FOR_NEXT:
+            return 0;
+        case FOR_START:
+            return -2;
+        case CALL:
+            return -argCount;
+        case SELF_CALL:
+            return 1 - argCount;
+        default:
+            // pops one value, or pops two and pushes one
+            return -1;
+        }
+    }
+}
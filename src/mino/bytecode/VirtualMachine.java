@@ -0,0 +1,556 @@
+/* This file is part of Mino.
+ *
+ * See the NOTICE file distributed with this work for copyright information.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package mino.bytecode;
+
+import java.util.*;
+
+import mino.exception.*;
+import mino.language_mino.*;
+import mino.structure.*;
+import mino.walker.*;
+
+/**
+ * Stack-based interpreter for compiled Code. Primitive methods and frames
+ * are delegated to the InterpreterEngine. Methods defined in Mino run in
+ * the same loop as their caller: the state of the caller is saved in
+ * activation records kept on the heap, and restored when the method
+ * returns. The memory of the live activations is bounded by a budget.
+ */
+public class VirtualMachine {
+
+    /** Default stack memory budget, in bytes. */
+    public static final long DEFAULT_STACK_MEMORY = 64L << 20;
+
+    /**
+     * Estimated size in bytes of an activation record and its frame, not
+     * counting their slots.
+     */
+    private static final int ACTIVATION_SIZE = 96;
+
+    /** Estimated size in bytes of a local variable or operand slot. */
+    private static final int SLOT_SIZE = 8;
+
+    private final BytecodeInterpreterEngine interpreterEngine;
+
+    private final BooleanClassInfo booleanClassInfo;
+
+    private final ClassInfo integerClassInfo;
+
+    private final ClassInfo floatClassInfo;
+
+    private final long stackMemory;
+
+    private long usedStackMemory;
+
+    // suspended callers, innermost last
+    private Code[] callerCodes = new Code[64];
+
+    private Frame[] callerFrames = new Frame[64];
+
+    private int[] callerPcs = new int[64];
+
+    private int[] callerSps = new int[64];
+
+    private int[] callerSizes = new int[64];
+
+    private MemoCache.Key[] callerMemoKeys = new MemoCache.Key[64];
+
+    private int depth;
+
+    public VirtualMachine(
+            BytecodeInterpreterEngine interpreterEngine,
+            ClassTable classTable,
+            long stackMemory) {
+
+        this.interpreterEngine = interpreterEngine;
+        this.booleanClassInfo = (BooleanClassInfo) classTable
+                .getBooleanClassInfoOrNull();
+        this.integerClassInfo = classTable.getIntegerClassInfoOrNull();
+        this.floatClassInfo = classTable.getFloatClassInfoOrNull();
+        this.stackMemory = stackMemory;
+    }
+
+    public void run(
+            Code code,
+            Frame frame) {
+
+        // activations below this depth belong to an enclosing run
+        int baseDepth = this.depth;
+        int size = 0;
+
+        // key of the result to cache when the activation returns
+        MemoCache.Key memoKey = null;
+
+        byte[] instructions = code.getInstructions();
+        Object[] constants = code.getConstants();
+        Instance[] stack = frame.getOperandStack(code.getMaxStack());
+        int sp = 0;
+        int pc = 0;
+
+        while (true) {
+            int opcode = instructions[pc++];
+            switch (opcode) {
+            case Opcode.CONST:
+                stack[sp++] = (Instance) constants[operand(instructions, pc)];
+                pc += 2;
+                break;
+            case Opcode.SELF:
+                stack[sp++] = frame.getReceiver();
+                break;
+            case Opcode.LOAD_VAR:
+                stack[sp++] = frame.getVar(operand(instructions, pc));
+                pc += 2;
+                break;
+            case Opcode.STORE_VAR:
+                frame.setVar(operand(instructions, pc), stack[--sp]);
+                pc += 2;
+                break;
+            case Opcode.LOAD_FIELD:
+                stack[sp++] = frame.getReceiver().getField(
+                        operand(instructions, pc));
+                pc += 2;
+                break;
+            case Opcode.STORE_FIELD:
+                frame.getReceiver().setField(operand(instructions, pc),
+                        stack[--sp]);
+                pc += 2;
+                break;
+            case Opcode.NEW:
+                stack[sp++] = ((ClassInfo) constants[operand(instructions, pc)])
+                        .newInstance();
+                pc += 2;
+                break;
+            case Opcode.IS: {
+                Instance right = stack[--sp];
+                stack[sp - 1] = toBoolean(Instance.same(stack[sp - 1],
+                        right));
+                break;
+            }
+            case Opcode.ISA: {
+                Instance value = stack[sp - 1];
+                stack[sp - 1] = toBoolean(value == null
+                        || value.isa((ClassInfo) constants[operand(
+                                instructions, pc)]));
+                pc += 2;
+                break;
+            }
+            case Opcode.NOT:
+                stack[sp - 1] = not(stack[sp - 1],
+                        (Token) constants[operand(instructions, pc)]);
+                pc += 2;
+                break;
+            case Opcode.EQ:
+            case Opcode.NOT_EQ:
+            case Opcode.LT:
+            case Opcode.LTE:
+            case Opcode.GT:
+            case Opcode.GTE:
+            case Opcode.ADD:
+            case Opcode.MINUS:
+            case Opcode.MULT:
+            case Opcode.DIV:
+            case Opcode.MODUL: {
+                Instance right = stack[--sp];
+                Instance left = stack[sp - 1];
+                Token operatorToken = (Token) constants[operand(instructions,
+                        pc)];
+                pc += 2;
+
+                MethodInfo invokedMethod = getOperatorMethod(opcode, left,
+                        right, operatorToken);
+                if (invokedMethod == null) {
+                    stack[sp - 1] = operate(opcode, frame, left, right,
+                            operatorToken);
+                    break;
+                }
+
+                if (invokedMethod.getBody() == null) {
+                    stack[sp - 1] = this.interpreterEngine.invokeOperator(
+                            frame, invokedMethod, left, right, operatorToken);
+                    break;
+                }
+
+                // operator defined in Mino
+                Frame calleeFrame = this.interpreterEngine.newFrame(frame,
+                        left, invokedMethod);
+                calleeFrame.setParam(right);
+                MemoCache.Key calleeMemoKey = getMemoKey(invokedMethod,
+                        calleeFrame);
+                if (calleeMemoKey != null && calleeMemoKey.isCached()) {
+                    this.interpreterEngine.releaseFrame(calleeFrame);
+                    stack[sp - 1] = calleeMemoKey.getResult();
+                    break;
+                }
+                sp--;
+
+                Code calleeCode = this.interpreterEngine.getCode(
+                        invokedMethod.getBody(), invokedMethod);
+                int calleeSize = getSize(calleeCode, invokedMethod);
+                reserve(calleeSize, operatorToken);
+                push(code, frame, pc, sp, size, memoKey);
+                this.interpreterEngine.enterFrame(calleeFrame, operatorToken);
+                memoKey = calleeMemoKey;
+
+                code = calleeCode;
+                frame = calleeFrame;
+                size = calleeSize;
+                instructions = code.getInstructions();
+                constants = code.getConstants();
+                stack = frame.getOperandStack(code.getMaxStack());
+                sp = 0;
+                pc = 0;
+                break;
+            }
+            case Opcode.CALL:
+            case Opcode.SELF_CALL: {
+                NId id = (NId) constants[operand(instructions, pc)];
+                int argCount = operand(instructions, pc + 2);
+                pc += 4;
+
+                int argBase = sp - argCount;
+                sp = argBase;
+                Instance receiver;
+                if (opcode == Opcode.CALL) {
+                    receiver = stack[--sp];
+                    if (receiver == null) {
+                        throw new InterpreterException("receiver of "
+                                + id.getText() + " is null", id);
+                    }
+                }
+                else {
+                    receiver = frame.getReceiver();
+                }
+
+                InlineCache inlineCache = this.interpreterEngine
+                        .getInlineCache(id);
+                MethodInfo invokedMethod = inlineCache.getMethodInfo(receiver
+                        .getClassInfo());
+                Frame calleeFrame = this.interpreterEngine.newFrame(frame,
+                        receiver, invokedMethod);
+                for (int i = 0; i < argCount; i++) {
+                    calleeFrame.setParam(stack[argBase + i]);
+                }
+
+                if (invokedMethod.getBody() == null) {
+                    // primitive methods do not call back into Mino
+                    stack[sp++] = this.interpreterEngine.execute(
+                            invokedMethod, calleeFrame, id);
+                    break;
+                }
+
+                MemoCache.Key calleeMemoKey = getMemoKey(invokedMethod,
+                        calleeFrame);
+                if (calleeMemoKey != null && calleeMemoKey.isCached()) {
+                    this.interpreterEngine.releaseFrame(calleeFrame);
+                    stack[sp++] = calleeMemoKey.getResult();
+                    break;
+                }
+
+                Code calleeCode = this.interpreterEngine.getCode(
+                        invokedMethod.getBody(), invokedMethod);
+                int calleeSize = getSize(calleeCode, invokedMethod);
+                if (inlineCache.isTailCall() && this.depth > baseDepth) {
+                    // the callee takes the place of the caller, and its
+                    // result is the one of the caller
+                    reserve(calleeSize - size, id);
+                    this.interpreterEngine.replaceFrame(frame, calleeFrame);
+                    if (memoKey == null) {
+                        memoKey = calleeMemoKey;
+                    }
+                }
+                else {
+                    reserve(calleeSize, id);
+                    push(code, frame, pc, sp, size, memoKey);
+                    this.interpreterEngine.enterFrame(calleeFrame, id);
+                    memoKey = calleeMemoKey;
+                }
+
+                code = calleeCode;
+                frame = calleeFrame;
+                size = calleeSize;
+                instructions = code.getInstructions();
+                constants = code.getConstants();
+                stack = frame.getOperandStack(code.getMaxStack());
+                sp = 0;
+                pc = 0;
+                break;
+            }
+            case Opcode.POP:
+                sp--;
+                break;
+            case Opcode.JUMP:
+                pc = operand(instructions, pc);
+                break;
+            case Opcode.JUMP_IF_NOT_TRUE:
+                if (stack[--sp] != this.booleanClassInfo.getTrue()) {
+                    pc = operand(instructions, pc);
+                }
+                else {
+                    pc += 2;
+                }
+                break;
+            case Opcode.JUMP_IF_FALSE: {
+                Instance value = stack[--sp];
+                if (value == null) {
+                    throw new InterpreterException("expression is null",
+                            (Token) constants[operand(instructions, pc + 2)]);
+                }
+                if (value == this.booleanClassInfo.getFalse()) {
+                    pc = operand(instructions, pc);
+                }
+                else {
+                    pc += 4;
+                }
+                break;
+            }
+            case Opcode.SIMPLIFY:
+                stack[sp - 1] = this.interpreterEngine.simplify(frame,
+                        (Folding) constants[operand(instructions, pc)],
+                        stack[sp - 1]);
+                pc += 2;
+                break;
+            case Opcode.FOR_START: {
+                Instance step = stack[--sp];
+                Instance to = stack[--sp];
+                Instance from = stack[sp - 1];
+                stack[sp - 1] = toBoolean(this.interpreterEngine.startCounter(
+                        frame, operand(instructions, pc), from, to, step,
+                        (Token) constants[operand(instructions, pc + 2)]));
+                pc += 4;
+                break;
+            }
+            case Opcode.FOR_NEXT:
+                if (frame.nextCounter(operand(instructions, pc))) {
+                    pc = operand(instructions, pc + 2);
+                }
+                else {
+                    pc += 4;
+                }
+                break;
+            case Opcode.LOAD_COUNTER:
+                stack[sp++] = this.interpreterEngine.getCounter(frame,
+                        operand(instructions, pc));
+                pc += 2;
+                break;
+            case Opcode.RETURN_VALUE:
+            case Opcode.RETURN: {
+                if (opcode == Opcode.RETURN_VALUE) {
+                    frame.setReturnValue(stack[--sp]);
+                }
+
+                if (this.depth == baseDepth) {
+                    return;
+                }
+
+                // resume the caller with the result
+                Instance result = this.interpreterEngine.leaveFrame(frame);
+                if (memoKey != null) {
+                    memoKey.setResult(result);
+                }
+                this.usedStackMemory -= size;
+                this.depth--;
+                code = this.callerCodes[this.depth];
+                frame = this.callerFrames[this.depth];
+                pc = this.callerPcs[this.depth];
+                sp = this.callerSps[this.depth];
+                size = this.callerSizes[this.depth];
+                memoKey = this.callerMemoKeys[this.depth];
+                this.callerCodes[this.depth] = null;
+                this.callerFrames[this.depth] = null;
+                this.callerMemoKeys[this.depth] = null;
+                instructions = code.getInstructions();
+                constants = code.getConstants();
+                stack = frame.getOperandStack(code.getMaxStack());
+                stack[sp++] = result;
+                break;
+            }
+            default:
+                throw new RuntimeException("invalid opcode " + opcode);
+            }
+        }
+    }
+
+    /**
+     * Returns the operator method to invoke for an operator instruction, or
+     * null when the instruction is computed without invoking a method:
+     * comparisons of numbers and operations involving null.
+     */
+    private MethodInfo getOperatorMethod(
+            int opcode,
+            Instance left,
+            Instance right,
+            Token operatorToken) {
+
+        if (left == null || right == null) {
+            return null;
+        }
+
+        if (opcode >= Opcode.LT && opcode <= Opcode.GTE
+                && (left.isa(this.integerClassInfo)
+                        || left.isa(this.floatClassInfo))) {
+            return null;
+        }
+
+        return this.interpreterEngine.getInlineCache(operatorToken)
+                .getMethodInfo(left.getClassInfo());
+    }
+
+    /**
+     * Computes an operator instruction that does not invoke a method.
+     */
+    private Instance operate(
+            int opcode,
+            Frame frame,
+            Instance left,
+            Instance right,
+            Token operatorToken) {
+
+        switch (opcode) {
+        case Opcode.EQ:
+        case Opcode.NOT_EQ:
+            return toBoolean((left == right) == (opcode == Opcode.EQ));
+        case Opcode.LT:
+        case Opcode.LTE:
+        case Opcode.GT:
+        case Opcode.GTE:
+            return this.interpreterEngine.compare(frame, left, right,
+                    operatorToken, getComparison(opcode));
+        default:
+            String operatorName = opcode == Opcode.ADD ? "+ method"
+                    : operatorToken.getText();
+            if (left == null) {
+                throw new InterpreterException("left argument of "
+                        + operatorName + " is null", operatorToken);
+            }
+
+            throw new InterpreterException("right argument of "
+                    + operatorName + " is null", operatorToken);
+        }
+    }
+
+    private static int getSize(
+            Code code,
+            MethodInfo invokedMethod) {
+
+        return ACTIVATION_SIZE + SLOT_SIZE
+                * (invokedMethod.getLocalCount() + code.getMaxStack());
+    }
+
+    /**
+     * Accounts for the memory of a new activation, and reports a stack
+     * overflow at the call site when the budget is exhausted.
+     */
+    private void reserve(
+            int size,
+            Token location) {
+
+        if (this.usedStackMemory + size > this.stackMemory) {
+            throw new InterpreterException("stack overflow", location);
+        }
+
+        this.usedStackMemory += size;
+    }
+
+    private void push(
+            Code code,
+            Frame frame,
+            int pc,
+            int sp,
+            int size,
+            MemoCache.Key memoKey) {
+
+        if (this.depth == this.callerCodes.length) {
+            int length = this.depth * 2;
+            this.callerCodes = Arrays.copyOf(this.callerCodes, length);
+            this.callerFrames = Arrays.copyOf(this.callerFrames, length);
+            this.callerPcs = Arrays.copyOf(this.callerPcs, length);
+            this.callerSps = Arrays.copyOf(this.callerSps, length);
+            this.callerSizes = Arrays.copyOf(this.callerSizes, length);
+            this.callerMemoKeys = Arrays.copyOf(this.callerMemoKeys, length);
+        }
+
+        this.callerCodes[this.depth] = code;
+        this.callerFrames[this.depth] = frame;
+        this.callerPcs[this.depth] = pc;
+        this.callerSps[this.depth] = sp;
+        this.callerSizes[this.depth] = size;
+        this.callerMemoKeys[this.depth] = memoKey;
+        this.depth++;
+    }
+
+    /**
+     * Returns the key of the cached result of a call of a pure method, or
+     * null when the call is not cached.
+     */
+    private static MemoCache.Key getMemoKey(
+            MethodInfo invokedMethod,
+            Frame calleeFrame) {
+
+        MemoCache memoCache = invokedMethod.getMemoCache();
+        if (memoCache == null) {
+            return null;
+        }
+
+        return memoCache.getKey(calleeFrame);
+    }
+
+    private static int operand(
+            byte[] instructions,
+            int pc) {
+
+        return ((instructions[pc] & 0xFF) << 8) | (instructions[pc + 1] & 0xFF);
+    }
+
+    private Instance toBoolean(
+            boolean value) {
+
+        return value ? this.booleanClassInfo.getTrue() : this.booleanClassInfo
+                .getFalse();
+    }
+
+    private Instance not(
+            Instance value,
+            Token notToken) {
+
+        if (value == null) {
+            throw new InterpreterException("expression is null", notToken);
+        }
+
+        if (!value.isa(this.booleanClassInfo)) {
+            throw new InterpreterException("expression is not boolean",
+                    notToken);
+        }
+
+        return toBoolean(value != this.booleanClassInfo.getTrue());
+    }
+
+    private static Comparison getComparison(
+            int opcode) {
+
+        switch (opcode) {
+        case Opcode.LT:
+            return Comparison.LOWER_THAN;
+        case Opcode.LTE:
+            return Comparison.LOWER_THAN_EQUAL;
+        case Opcode.GT:
+            return Comparison.GREATER_THAN;
+        default:
+            return Comparison.GREATER_THAN_EQUAL;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/* This file is part of Mino.
+ *
+ * See the NOTICE file distributed with this work for copyright information.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package mino.execution;
+
+import mino.language_mino.*;
+import mino.structure.*;
+import mino.walker.*;
+
+/**
+ * <, <=, > and >= operators. Integer and Float operands are compared
+ * numerically, other receivers dispatch to their own operator method.
+ */
+public class ComparisonNode
+        extends ExpressionNode {
+
+    private final InterpreterEngine interpreterEngine;
+
+    private final ExpressionNode left;
+
+    private final ExpressionNode right;
+
+    private final Token operatorToken;
+
+    private final Comparison comparison;
+
+    public ComparisonNode(
+            InterpreterEngine interpreterEngine,
+            ExpressionNode left,
+            ExpressionNode right,
+            Token operatorToken,
+            Comparison comparison) {
+
+        this.interpreterEngine = interpreterEngine;
+        this.left = left;
+        this.right = right;
+        this.operatorToken = operatorToken;
+        this.comparison = comparison;
+    }
+
+    @Override
+    public Instance execute(
+            Frame frame) {
+
+        Instance left = this.left.execute(frame);
+        Instance right = this.right.execute(frame);
+        return this.interpreterEngine.compare(frame, left, right,
+                this.operatorToken, this.comparison);
+    }
+}
@@ -0,0 +1,48 @@
+/* This file is part of Mino.
+ *
+ * See the NOTICE file distributed with this work for copyright information.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package mino.execution;
+
+import mino.structure.*;
+import mino.walker.*;
+
+/**
+ * Read of the variable of a for loop, which creates the Integer of the
+ * current value of its counter.
+ */
+public class CounterNode
+        extends ExpressionNode {
+
+    private final int slot;
+
+    private final InterpreterEngine interpreterEngine;
+
+    public CounterNode(
+            int slot,
+            InterpreterEngine interpreterEngine) {
+
+        this.slot = slot;
+        this.interpreterEngine = interpreterEngine;
+    }
+
+    @Override
+    public Instance execute(
+            Frame frame) {
+
+        return this.interpreterEngine.getCounter(frame, this.slot);
+    }
+}
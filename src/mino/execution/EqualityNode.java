@@ -0,0 +1,104 @@
+/* This file is part of Mino.
+ *
+ * See the NOTICE file distributed with this work for copyright information.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package mino.execution;
+
+import mino.language_mino.*;
+import mino.structure.*;
+import mino.walker.*;
+
+/**
+ * == and != operators. A null operand is compared by identity, otherwise
+ * the operator is dispatched on the class of the left operand. When an
+ * Inliner is given, a small operator method found on the first dispatch is
+ * inlined for left operands of the first class.
+ */
+public class EqualityNode
+        extends ExpressionNode {
+
+    private final InterpreterEngine interpreterEngine;
+
+    private final ExpressionNode left;
+
+    private final ExpressionNode right;
+
+    private final Token operatorToken;
+
+    private final boolean negated;
+
+    private final BooleanClassInfo booleanClassInfo;
+
+    private final InlineCache inlineCache;
+
+    private Inliner inliner;
+
+    private InlinedMethod inlinedMethod;
+
+    public EqualityNode(
+            InterpreterEngine interpreterEngine,
+            ExpressionNode left,
+            ExpressionNode right,
+            Token operatorToken,
+            boolean negated,
+            BooleanClassInfo booleanClassInfo,
+            Inliner inliner) {
+
+        this.interpreterEngine = interpreterEngine;
+        this.left = left;
+        this.right = right;
+        this.operatorToken = operatorToken;
+        this.inlineCache = interpreterEngine.newInlineCache(operatorToken);
+        this.negated = negated;
+        this.booleanClassInfo = booleanClassInfo;
+        this.inliner = inliner;
+    }
+
+    @Override
+    public Instance execute(
+            Frame frame) {
+
+        Instance left = this.left.execute(frame);
+        Instance right = this.right.execute(frame);
+        if (left == null || right == null) {
+            if ((left == right) != this.negated) {
+                return this.booleanClassInfo.getTrue();
+            }
+
+            return this.booleanClassInfo.getFalse();
+        }
+
+        ClassInfo classInfo = left.getClassInfo();
+        if (this.inlinedMethod != null && this.inlinedMethod.accepts(classInfo)) {
+            Frame calleeFrame = this.interpreterEngine.newFrame(frame, left,
+                    this.inlinedMethod.getMethodInfo());
+            calleeFrame.setParam(right);
+            return this.inlinedMethod.execute(calleeFrame, this.operatorToken);
+        }
+
+        MethodInfo invokedMethod = this.inlineCache.getMethodInfo(classInfo);
+        if (this.inliner != null) {
+            this.inlinedMethod = this.inliner.inline(classInfo, invokedMethod);
+            this.inliner = null;
+        }
+
+        Frame calleeFrame = this.interpreterEngine.newFrame(frame, left,
+                invokedMethod);
+        calleeFrame.setParam(right);
+        return this.interpreterEngine.execute(invokedMethod, calleeFrame,
+                this.operatorToken);
+    }
+}
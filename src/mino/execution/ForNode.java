@@ -0,0 +1,87 @@
+/* This file is part of Mino.
+ *
+ * See the NOTICE file distributed with this work for copyright information.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package mino.execution;
+
+import mino.language_mino.*;
+import mino.structure.*;
+import mino.walker.*;
+
+/**
+ * Counted for loop. The bounds and the step are evaluated once, and the
+ * counter is kept as a long in the frame.
+ */
+public class ForNode
+        extends StatementNode {
+
+    private final ExpressionNode from;
+
+    private final ExpressionNode to;
+
+    private final ExpressionNode step;
+
+    private final StatementNode body;
+
+    private final int slot;
+
+    private final Token location;
+
+    private final InterpreterEngine interpreterEngine;
+
+    public ForNode(
+            ExpressionNode from,
+            ExpressionNode to,
+            ExpressionNode step,
+            StatementNode body,
+            int slot,
+            Token location,
+            InterpreterEngine interpreterEngine) {
+
+        this.from = from;
+        this.to = to;
+        this.step = step;
+        this.body = body;
+        this.slot = slot;
+        this.location = location;
+        this.interpreterEngine = interpreterEngine;
+    }
+
+    @Override
+    public void execute(
+            Frame frame) {
+
+        Instance from = this.from.execute(frame);
+        Instance to = this.to.execute(frame);
+        Instance step = null;
+        if (this.step != null) {
+            step = this.step.execute(frame);
+        }
+
+        if (!this.interpreterEngine.startCounter(frame, this.slot, from, to,
+                step, this.location)) {
+            return;
+        }
+
+        do {
+            this.body.execute(frame);
+            if (frame.hasReturned()) {
+                return;
+            }
+        }
+        while (frame.nextCounter(this.slot));
+    }
+}
@@ -0,0 +1,56 @@
+/* This file is part of Mino.
+ *
+ * See the NOTICE file distributed with this work for copyright information.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package mino.execution;
+
+import mino.structure.*;
+
+public class IfNode
+        extends StatementNode {
+
+    private final ExpressionNode condition;
+
+    private final StatementNode thenBody;
+
+    private final StatementNode elseBody;
+
+    private final Instance trueInstance;
+
+    public IfNode(
+            ExpressionNode condition,
+            StatementNode thenBody,
+            StatementNode elseBody,
+            BooleanClassInfo booleanClassInfo) {
+
+        this.condition = condition;
+        this.thenBody = thenBody;
+        this.elseBody = elseBody;
+        this.trueInstance = booleanClassInfo.getTrue();
+    }
+
+    @Override
+    public void execute(
+            Frame frame) {
+
+        if (this.condition.execute(frame) == this.trueInstance) {
+            this.thenBody.execute(frame);
+        }
+        else if (this.elseBody != null) {
+            this.elseBody.execute(frame);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/* This file is part of Mino.
+ *
+ * See the NOTICE file distributed with this work for copyright information.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package mino.execution;
+
+import mino.language_mino.*;
+import mino.structure.*;
+import mino.walker.*;
+
+/**
+ * Copy of a method body inlined at a call site, valid for receivers of a
+ * single class. The call site checks the class of the receiver, and falls
+ * back to a regular call for any other class. The body still runs in a
+ * frame of the method, which the engine keeps as its current frame unless
+ * the body is a leaf, so that stack traces show the inlined method.
+ */
+public class InlinedMethod {
+
+    private final InterpreterEngine interpreterEngine;
+
+    private final ClassInfo receiverClassInfo;
+
+    private final MethodInfo methodInfo;
+
+    private final BlockNode body;
+
+    private final boolean leaf;
+
+    public InlinedMethod(
+            InterpreterEngine interpreterEngine,
+            ClassInfo receiverClassInfo,
+            MethodInfo methodInfo,
+            BlockNode body,
+            boolean leaf) {
+
+        this.interpreterEngine = interpreterEngine;
+        this.receiverClassInfo = receiverClassInfo;
+        this.methodInfo = methodInfo;
+        this.body = body;
+        this.leaf = leaf;
+    }
+
+    public boolean accepts(
+            ClassInfo classInfo) {
+
+        return classInfo == this.receiverClassInfo;
+    }
+
+    public MethodInfo getMethodInfo() {
+
+        return this.methodInfo;
+    }
+
+    public Instance execute(
+            Frame calleeFrame,
+            Token location) {
+
+        if (this.leaf) {
+            this.body.execute(calleeFrame);
+            return this.interpreterEngine.releaseFrame(calleeFrame);
+        }
+
+        return this.interpreterEngine.executeInlined(this.body, calleeFrame,
+                location);
+    }
+}
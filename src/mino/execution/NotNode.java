@@ -0,0 +1,63 @@
+/* This file is part of Mino.
+ *
+ * See the NOTICE file distributed with this work for copyright information.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package mino.execution;
+
+import mino.exception.*;
+import mino.language_mino.*;
+import mino.structure.*;
+
+public class NotNode
+        extends ExpressionNode {
+
+    private final ExpressionNode operand;
+
+    private final Token notToken;
+
+    private final BooleanClassInfo booleanClassInfo;
+
+    public NotNode(
+            ExpressionNode operand,
+            Token notToken,
+            BooleanClassInfo booleanClassInfo) {
+
+        this.operand = operand;
+        this.notToken = notToken;
+        this.booleanClassInfo = booleanClassInfo;
+    }
+
+    @Override
+    public Instance execute(
+            Frame frame) {
+
+        Instance value = this.operand.execute(frame);
+        if (value == null) {
+            throw new InterpreterException("expression is null", this.notToken);
+        }
+
+        if (!value.isa(this.booleanClassInfo)) {
+            throw new InterpreterException("expression is not boolean",
+                    this.notToken);
+        }
+
+        if (value == this.booleanClassInfo.getTrue()) {
+            return this.booleanClassInfo.getFalse();
+        }
+
+        return this.booleanClassInfo.getTrue();
+    }
+}
@@ -0,0 +1,88 @@
+/* This file is part of Mino.
+ *
+ * See the NOTICE file distributed with this work for copyright information.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package mino.execution;
+
+import mino.exception.*;
+import mino.language_mino.*;
+import mino.structure.*;
+import mino.walker.*;
+
+/**
+ * Binary operator whose operands must not be null, such as + or *. The
+ * operator is dispatched on the class of the left operand.
+ */
+public class OperatorCallNode
+        extends ExpressionNode {
+
+    private final InterpreterEngine interpreterEngine;
+
+    private final ExpressionNode left;
+
+    private final ExpressionNode right;
+
+    private final Token operatorToken;
+
+    private final String operatorName;
+
+    private final InlineCache inlineCache;
+
+    public OperatorCallNode(
+            InterpreterEngine interpreterEngine,
+            ExpressionNode left,
+            ExpressionNode right,
+            Token operatorToken,
+            String operatorName) {
+
+        this.interpreterEngine = interpreterEngine;
+        this.left = left;
+        this.right = right;
+        this.operatorToken = operatorToken;
+        this.inlineCache = interpreterEngine.newInlineCache(operatorToken);
+        this.operatorName = operatorName;
+    }
+
+    @Override
+    public Instance execute(
+            Frame frame) {
+
+        Instance left = this.left.execute(frame);
+        Instance right = this.right.execute(frame);
+        if (left == null) {
+            throw new InterpreterException("left argument of "
+                    + this.operatorName + " is null", this.operatorToken);
+        }
+        else if (right == null) {
+            throw new InterpreterException("right argument of "
+                    + this.operatorName + " is null", this.operatorToken);
+        }
+
+        MethodInfo invokedMethod = this.inlineCache.getMethodInfo(left
+                .getClassInfo());
+        Instance result = this.interpreterEngine.invokeIntrinsicOperator(
+                invokedMethod, left, right);
+        if (result != null) {
+            return result;
+        }
+
+        Frame calleeFrame = this.interpreterEngine.newFrame(frame, left,
+                invokedMethod);
+        calleeFrame.setParam(right);
+        return this.interpreterEngine.execute(invokedMethod, calleeFrame,
+                this.operatorToken);
+    }
+}
@@ -0,0 +1,62 @@
+/* This file is part of Mino.
+ *
+ * See the NOTICE file distributed with this work for copyright information.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package mino.execution;
+
+import mino.language_mino.*;
+import mino.structure.*;
+import mino.walker.*;
+
+public class SelfCallNode
+        extends ExpressionNode {
+
+    private final InterpreterEngine interpreterEngine;
+
+    private final NId id;
+
+    private final ExpressionNode[] args;
+
+    private final InlineCache inlineCache;
+
+    public SelfCallNode(
+            InterpreterEngine interpreterEngine,
+            NId id,
+            ExpressionNode[] args) {
+
+        this.interpreterEngine = interpreterEngine;
+        this.id = id;
+        this.inlineCache = interpreterEngine.newInlineCache(id);
+        this.args = args;
+    }
+
+    @Override
+    public Instance execute(
+            Frame frame) {
+
+        Instance receiver = frame.getReceiver();
+        MethodInfo invokedMethod = this.inlineCache.getMethodInfo(receiver
+                .getClassInfo());
+        Frame calleeFrame = this.interpreterEngine.newFrame(frame, receiver,
+                invokedMethod);
+        for (ExpressionNode arg : this.args) {
+            calleeFrame.setParam(arg.execute(frame));
+        }
+
+        return this.interpreterEngine.invoke(invokedMethod, calleeFrame,
+                this.id, this.inlineCache.isTailCall());
+    }
+}
@@ -0,0 +1,54 @@
+/* This file is part of Mino.
+ *
+ * See the NOTICE file distributed with this work for copyright information.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package mino.execution;
+
+import mino.structure.*;
+import mino.walker.*;
+
+/**
+ * Evaluates an operand that replaced a simplified expression. The value is
+ * checked by the InterpreterEngine, which applies the original operator to
+ * a value of an unexpected class.
+ */
+public class SimplificationNode
+        extends ExpressionNode {
+
+    private final InterpreterEngine interpreterEngine;
+
+    private final ExpressionNode operand;
+
+    private final Folding folding;
+
+    public SimplificationNode(
+            InterpreterEngine interpreterEngine,
+            ExpressionNode operand,
+            Folding folding) {
+
+        this.interpreterEngine = interpreterEngine;
+        this.operand = operand;
+        this.folding = folding;
+    }
+
+    @Override
+    public Instance execute(
+            Frame frame) {
+
+        return this.interpreterEngine.simplify(frame, this.folding,
+                this.operand.execute(frame));
+    }
+}
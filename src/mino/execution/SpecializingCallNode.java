@@ -0,0 +1,101 @@
+/* This file is part of Mino.
+ *
+ * See the NOTICE file distributed with this work for copyright information.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package mino.execution;
+
+import mino.exception.*;
+import mino.language_mino.*;
+import mino.structure.*;
+import mino.walker.*;
+
+/**
+ * Method call that inlines the method found on its first call. The method
+ * is found through the inline cache of the site, as for the other call
+ * nodes, so that the site is bound by the class hierarchy analysis and
+ * counted by the inline cache statistics. A receiver of the class of the
+ * first receiver then runs the inlined copy of the method body. The
+ * receiver node is null for a call on self.
+ */
+public class SpecializingCallNode
+        extends ExpressionNode {
+
+    private final InterpreterEngine interpreterEngine;
+
+    private final ExpressionNode receiver;
+
+    private final NId id;
+
+    private final ExpressionNode[] args;
+
+    private final InlineCache inlineCache;
+
+    private Inliner inliner;
+
+    private InlinedMethod inlinedMethod;
+
+    public SpecializingCallNode(
+            InterpreterEngine interpreterEngine,
+            ExpressionNode receiver,
+            NId id,
+            ExpressionNode[] args,
+            Inliner inliner) {
+
+        this.interpreterEngine = interpreterEngine;
+        this.receiver = receiver;
+        this.id = id;
+        this.args = args;
+        this.inlineCache = interpreterEngine.newInlineCache(id);
+        this.inliner = inliner;
+    }
+
+    @Override
+    public Instance execute(
+            Frame frame) {
+
+        Instance receiver;
+        if (this.receiver == null) {
+            receiver = frame.getReceiver();
+        }
+        else {
+            receiver = this.receiver.execute(frame);
+            if (receiver == null) {
+                throw new InterpreterException("receiver of "
+                        + this.id.getText() + " is null", this.id);
+            }
+        }
+
+        ClassInfo classInfo = receiver.getClassInfo();
+        MethodInfo invokedMethod = this.inlineCache.getMethodInfo(classInfo);
+        if (this.inliner != null) {
+            this.inlinedMethod = this.inliner.inline(classInfo, invokedMethod);
+            this.inliner = null;
+        }
+
+        Frame calleeFrame = this.interpreterEngine.newFrame(frame, receiver,
+                invokedMethod);
+        for (ExpressionNode arg : this.args) {
+            calleeFrame.setParam(arg.execute(frame));
+        }
+
+        if (this.inlinedMethod != null && this.inlinedMethod.accepts(classInfo)) {
+            return this.inlinedMethod.execute(calleeFrame, this.id);
+        }
+
+        return this.interpreterEngine.invoke(invokedMethod, calleeFrame,
+                this.id, this.inlineCache.isTailCall());
+    }
+}
@@ -0,0 +1,166 @@
+/* This file is part of Mino.
+ *
+ * See the NOTICE file distributed with this work for copyright information.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package mino.execution;
+
+import mino.language_mino.*;
+import mino.structure.*;
+import mino.walker.*;
+
+/**
+ * <, <=, > and >= operators that specialize themselves on the classes of
+ * the operands they observe: two Integers, or a Float and an Integer or
+ * Float. The specialized comparison is guarded on the exact classes of the
+ * operands, and the node falls back to the generic comparison for good
+ * when the guard fails.
+ */
+public class SpecializingComparisonNode
+        extends ExpressionNode {
+
+    private static final int UNINITIALIZED = 0;
+
+    private static final int INTEGER_INTEGER = 1;
+
+    private static final int FLOAT_NUMBER = 2;
+
+    private static final int GENERIC = 3;
+
+    private final InterpreterEngine interpreterEngine;
+
+    private final ExpressionNode left;
+
+    private final ExpressionNode right;
+
+    private final Token operatorToken;
+
+    private final Comparison comparison;
+
+    private final BooleanClassInfo booleanClassInfo;
+
+    private final IntegerClassInfo integerClassInfo;
+
+    private final FloatClassInfo floatClassInfo;
+
+    private int state = UNINITIALIZED;
+
+    public SpecializingComparisonNode(
+            InterpreterEngine interpreterEngine,
+            ExpressionNode left,
+            ExpressionNode right,
+            Token operatorToken,
+            Comparison comparison,
+            ClassTable classTable) {
+
+        this.interpreterEngine = interpreterEngine;
+        this.left = left;
+        this.right = right;
+        this.operatorToken = operatorToken;
+        this.comparison = comparison;
+        this.booleanClassInfo = (BooleanClassInfo) classTable
+                .getBooleanClassInfoOrNull();
+        this.integerClassInfo = (IntegerClassInfo) classTable
+                .getIntegerClassInfoOrNull();
+        this.floatClassInfo = (FloatClassInfo) classTable
+                .getFloatClassInfoOrNull();
+    }
+
+    @Override
+    public Instance execute(
+            Frame frame) {
+
+        Instance left = this.left.execute(frame);
+        Instance right = this.right.execute(frame);
+
+        if (this.state == UNINITIALIZED) {
+            this.state = specialize(left, right);
+        }
+
+        if (this.state == INTEGER_INTEGER) {
+            if (isInteger(left) && isInteger(right)) {
+                return toBoolean(((IntegerInstance) left)
+                        .compareTo((IntegerInstance) right));
+            }
+
+            this.state = GENERIC;
+        }
+        else if (this.state == FLOAT_NUMBER) {
+            if (isNumber(left) && isNumber(right)
+                    && (isFloat(left) || isFloat(right))) {
+                return toBoolean(Float.compare(toFloat(left), toFloat(right)));
+            }
+
+            this.state = GENERIC;
+        }
+
+        return this.interpreterEngine.compare(frame, left, right,
+                this.operatorToken, this.comparison);
+    }
+
+    private int specialize(
+            Instance left,
+            Instance right) {
+
+        if (isInteger(left) && isInteger(right)) {
+            return INTEGER_INTEGER;
+        }
+        else if (isNumber(left) && isNumber(right)) {
+            return FLOAT_NUMBER;
+        }
+
+        return GENERIC;
+    }
+
+    private boolean isInteger(
+            Instance instance) {
+
+        return instance != null
+                && instance.getClassInfo() == this.integerClassInfo;
+    }
+
+    private boolean isFloat(
+            Instance instance) {
+
+        return instance.getClassInfo() == this.floatClassInfo;
+    }
+
+    private boolean isNumber(
+            Instance instance) {
+
+        return isInteger(instance)
+                || (instance != null && isFloat(instance));
+    }
+
+    private float toFloat(
+            Instance instance) {
+
+        if (isInteger(instance)) {
+            return ((IntegerInstance) instance).floatValue();
+        }
+
+        return ((FloatInstance) instance).getValue();
+    }
+
+    private Instance toBoolean(
+            int compareResult) {
+
+        if (this.comparison.holds(compareResult)) {
+            return this.booleanClassInfo.getTrue();
+        }
+
+        return this.booleanClassInfo.getFalse();
+    }
+}
@@ -0,0 +1,194 @@
+/* This file is part of Mino.
+ *
+ * See the NOTICE file distributed with this work for copyright information.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package mino.execution;
+
+import mino.exception.*;
+import mino.language_mino.*;
+import mino.structure.*;
+import mino.walker.*;
+
+/**
+ * Arithmetic operator that specializes itself on the classes of the
+ * operands it observes. When the operator of an Integer or Float left
+ * operand is primitive, the node computes the result directly as long as
+ * the operands keep the observed classes, and falls back to a generic
+ * operator call for good when they do not. Division by zero and other
+ * unusual operands always take the generic path, so that errors are
+ * reported as usual.
+ */
+public class SpecializingOperatorNode
+        extends ExpressionNode {
+
+    private static final int UNINITIALIZED = 0;
+
+    private static final int INTEGER_INTEGER = 1;
+
+    private static final int FLOAT_NUMBER = 2;
+
+    private static final int GENERIC = 3;
+
+    private final InterpreterEngine interpreterEngine;
+
+    private final ExpressionNode left;
+
+    private final ExpressionNode right;
+
+    private final Token operatorToken;
+
+    private final String operatorName;
+
+    private final char operator;
+
+    private final IntegerClassInfo integerClassInfo;
+
+    private final FloatClassInfo floatClassInfo;
+
+    private int state = UNINITIALIZED;
+
+    public SpecializingOperatorNode(
+            InterpreterEngine interpreterEngine,
+            ExpressionNode left,
+            ExpressionNode right,
+            Token operatorToken,
+            String operatorName,
+            ClassTable classTable) {
+
+        this.interpreterEngine = interpreterEngine;
+        this.left = left;
+        this.right = right;
+        this.operatorToken = operatorToken;
+        this.operatorName = operatorName;
+        this.operator = operatorToken.getText().charAt(0);
+        this.integerClassInfo = (IntegerClassInfo) classTable
+                .getIntegerClassInfoOrNull();
+        this.floatClassInfo = (FloatClassInfo) classTable
+                .getFloatClassInfoOrNull();
+    }
+
+    @Override
+    public Instance execute(
+            Frame frame) {
+
+        Instance left = this.left.execute(frame);
+        Instance right = this.right.execute(frame);
+        if (left == null) {
+            throw new InterpreterException("left argument of "
+                    + this.operatorName + " is null", this.operatorToken);
+        }
+        else if (right == null) {
+            throw new InterpreterException("right argument of "
+                    + this.operatorName + " is null", this.operatorToken);
+        }
+
+        if (this.state == UNINITIALIZED) {
+            this.state = specialize(left, right);
+        }
+
+        if (this.state == INTEGER_INTEGER) {
+            Instance result = executeIntegerInteger(left, right);
+            if (result != null) {
+                return result;
+            }
+        }
+        else if (this.state == FLOAT_NUMBER) {
+            Instance result = executeFloatNumber(left, right);
+            if (result != null) {
+                return result;
+            }
+        }
+
+        return this.interpreterEngine.invokeOperator(frame, left, right,
+                this.operatorToken);
+    }
+
+    private int specialize(
+            Instance left,
+            Instance right) {
+
+        ClassInfo leftClassInfo = left.getClassInfo();
+        ClassInfo rightClassInfo = right.getClassInfo();
+        if (leftClassInfo != this.integerClassInfo
+                && leftClassInfo != this.floatClassInfo) {
+            return GENERIC;
+        }
+
+        MethodInfo invokedMethod = leftClassInfo.getMethodTable()
+                .getMethodInfo(this.operatorToken);
+        if (!(invokedMethod instanceof PrimitiveOperatorMethodInfo)) {
+            return GENERIC;
+        }
+
+        if (leftClassInfo == this.integerClassInfo
+                && rightClassInfo == this.integerClassInfo) {
+            return INTEGER_INTEGER;
+        }
+        else if (leftClassInfo == this.floatClassInfo
+                && this.operator != '%'
+                && (rightClassInfo == this.floatClassInfo
+                        || rightClassInfo == this.integerClassInfo)) {
+            return FLOAT_NUMBER;
+        }
+
+        return GENERIC;
+    }
+
+    /**
+     * Returns the result for two Integers, or null after a guard failure.
+     */
+    private Instance executeIntegerInteger(
+            Instance left,
+            Instance right) {
+
+        if (left.getClassInfo() != this.integerClassInfo
+                || right.getClassInfo() != this.integerClassInfo) {
+            this.state = GENERIC;
+            return null;
+        }
+
+        return this.interpreterEngine.integerArithmetic(this.operator,
+                (IntegerInstance) left, (IntegerInstance) right);
+    }
+
+    /**
+     * Returns the result for a Float and an Integer or Float, or null after a
+     * guard failure.
+     */
+    private Instance executeFloatNumber(
+            Instance left,
+            Instance right) {
+
+        float rightValue;
+        if (left.getClassInfo() != this.floatClassInfo) {
+            this.state = GENERIC;
+            return null;
+        }
+        else if (right.getClassInfo() == this.floatClassInfo) {
+            rightValue = ((FloatInstance) right).getValue();
+        }
+        else if (right.getClassInfo() == this.integerClassInfo) {
+            rightValue = ((IntegerInstance) right).floatValue();
+        }
+        else {
+            this.state = GENERIC;
+            return null;
+        }
+
+        return this.interpreterEngine.floatArithmetic(this.operator,
+                ((FloatInstance) left).getValue(), rightValue);
+    }
+}
@@ -15,9 +15,12 @@
  * limitations under the License.
  */
 
-package mino.exception;
+package mino.execution;
 
-public class ReturnException
-        extends RuntimeException {
+import mino.structure.*;
 
+public abstract class StatementNode {
+
+    public abstract void execute(
+            Frame frame);
 }
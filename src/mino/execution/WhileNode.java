@@ -0,0 +1,68 @@
+/* This file is part of Mino.
+ *
+ * See the NOTICE file distributed with this work for copyright information.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package mino.execution;
+
+import mino.exception.*;
+import mino.language_mino.*;
+import mino.structure.*;
+
+public class WhileNode
+        extends StatementNode {
+
+    private final ExpressionNode condition;
+
+    private final StatementNode body;
+
+    private final Token location;
+
+    private final Instance falseInstance;
+
+    public WhileNode(
+            ExpressionNode condition,
+            StatementNode body,
+            Token location,
+            BooleanClassInfo booleanClassInfo) {
+
+        this.condition = condition;
+        this.body = body;
+        this.location = location;
+        this.falseInstance = booleanClassInfo.getFalse();
+    }
+
+    @Override
+    public void execute(
+            Frame frame) {
+
+        while (true) {
+            Instance value = this.condition.execute(frame);
+            if (value == null) {
+                throw new InterpreterException("expression is null",
+                        this.location);
+            }
+
+            if (value == this.falseInstance) {
+                break;
+            }
+
+            this.body.execute(frame);
+            if (frame.hasReturned()) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/* This file is part of Mino.
+ *
+ * See the NOTICE file distributed with this work for copyright information.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package mino.jvm;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Constant pool of a JVM class file. Equal entries are shared.
+ */
+public class ConstantPool {
+
+    private static final int CONSTANT_UTF8 = 1;
+
+    private static final int CONSTANT_CLASS = 7;
+
+    private static final int CONSTANT_STRING = 8;
+
+    private static final int CONSTANT_FIELDREF = 9;
+
+    private static final int CONSTANT_METHODREF = 10;
+
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+    private final DataOutputStream output = new DataOutputStream(this.bytes);
+
+    private final Map<String, Integer> keyToIndexMap = new HashMap<String, Integer>();
+
+    private int nextIndex = 1;
+
+    public int addUtf8(
+            String value) {
+
+        String key = "U" + value;
+        Integer index = this.keyToIndexMap.get(key);
+        if (index == null) {
+            index = newEntry(key);
+            try {
+                this.output.writeByte(CONSTANT_UTF8);
+                this.output.writeUTF(value);
+            }
+            catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        return index;
+    }
+
+    public int addClass(
+            String internalName) {
+
+        return addReference(CONSTANT_CLASS, addUtf8(internalName));
+    }
+
+    public int addString(
+            String value) {
+
+        return addReference(CONSTANT_STRING, addUtf8(value));
+    }
+
+    public int addFieldref(
+            String owner,
+            String name,
+            String descriptor) {
+
+        return addReference(CONSTANT_FIELDREF, addClass(owner),
+                addNameAndType(name, descriptor));
+    }
+
+    public int addMethodref(
+            String owner,
+            String name,
+            String descriptor) {
+
+        return addReference(CONSTANT_METHODREF, addClass(owner),
+                addNameAndType(name, descriptor));
+    }
+
+    public int getCount() {
+
+        return this.nextIndex;
+    }
+
+    public byte[] toByteArray() {
+
+        return this.bytes.toByteArray();
+    }
+
+    private int addNameAndType(
+            String name,
+            String descriptor) {
+
+        return addReference(CONSTANT_NAME_AND_TYPE, addUtf8(name),
+                addUtf8(descriptor));
+    }
+
+    private int addReference(
+            int tag,
+            int... indexes) {
+
+        String key = tag + Arrays.toString(indexes);
+        Integer index = this.keyToIndexMap.get(key);
+        if (index == null) {
+            index = newEntry(key);
+            try {
+                this.output.writeByte(tag);
+                for (int referencedIndex : indexes) {
+                    this.output.writeShort(referencedIndex);
+                }
+            }
+            catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        return index;
+    }
+
+    private int newEntry(
+            String key) {
+
+        if (this.nextIndex > 0xFFFF) {
+            throw new RuntimeException("too many constants in class file");
+        }
+
+        int index = this.nextIndex++;
+        this.keyToIndexMap.put(key, index);
+        return index;
+    }
+}
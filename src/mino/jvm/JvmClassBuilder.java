@@ -0,0 +1,719 @@
+/* This file is part of Mino.
+ *
+ * See the NOTICE file distributed with this work for copyright information.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package mino.jvm;
+
+import java.io.*;
+import java.lang.constant.*;
+import java.lang.invoke.*;
+import java.util.*;
+
+import mino.bytecode.*;
+import mino.language_mino.*;
+import mino.structure.*;
+
+/**
+ * Translates the Codes of the methods of a program into a JVM class, with
+ * one static method per Mino method, and defines it as a hidden class.
+ * Each method has the descriptor (JvmRuntime, Frame)void. A call site bound
+ * by the class hierarchy analysis invokes its method through a static entry
+ * method of the same class, which takes the receiver and the arguments on
+ * the JVM stack. The constants of the Codes are handed to the class as
+ * class data, so that the class is not strongly reachable from its loader
+ * and can be unloaded once its method handles are no longer used.
+ */
+public class JvmClassBuilder {
+
+    public static final MethodType METHOD_TYPE = MethodType.methodType(
+            void.class, JvmRuntime.class, Frame.class);
+
+    private static final String METHOD_DESCRIPTOR = METHOD_TYPE
+            .toMethodDescriptorString();
+
+    private static final int CLASS_FILE_VERSION = 50;
+
+    private static final int ACC_PUBLIC = 0x0001;
+
+    private static final int ACC_PRIVATE = 0x0002;
+
+    private static final int ACC_STATIC = 0x0008;
+
+    private static final int ACC_FINAL = 0x0010;
+
+    private static final int ACC_SUPER = 0x0020;
+
+    private static final int RUNTIME_LOCAL = 0;
+
+    private static final int FRAME_LOCAL = 1;
+
+    private static final int FIRST_ARG_LOCAL = 2;
+
+    private static final String OBJECT = "java/lang/Object";
+
+    private static final String RUNTIME = "mino/jvm/JvmRuntime";
+
+    private static final String FRAME = "mino/structure/Frame";
+
+    private static final String INSTANCE = "mino/structure/Instance";
+
+    private static final String CLASS_INFO = "mino/structure/ClassInfo";
+
+    private static final String METHOD_INFO = "mino/structure/MethodInfo";
+
+    private static final String INLINE_CACHE = "mino/structure/InlineCache";
+
+    private static final String COMPARISON = "mino/structure/Comparison";
+
+    private static final String FOLDING = "mino/structure/Folding";
+
+    private static final String TOKEN = "mino/language_mino/Token";
+
+    private static final String ID = "mino/language_mino/NId";
+
+
+    private static final String CONSTANTS_FIELD = "constants";
+
+    private final String internalName;
+
+    private final JvmRuntime runtime;
+
+    private final ConstantPool constantPool = new ConstantPool();
+
+    private final List<Object> constants = new ArrayList<Object>();
+
+    private final Map<Object, Integer> constantToIndexMap = new IdentityHashMap<Object, Integer>();
+
+    private final ByteArrayOutputStream methods = new ByteArrayOutputStream();
+
+    private final Map<NStms, String> bodyToMethodNameMap = new IdentityHashMap<NStms, String>();
+
+    private final Map<MethodInfo, String> methodToEntryNameMap = new IdentityHashMap<MethodInfo, String>();
+
+    private int methodCount;
+
+    public JvmClassBuilder(
+            String name,
+            JvmRuntime runtime) {
+
+        this.internalName = "mino/jvm/Mino$" + toIdentifier(name);
+        this.runtime = runtime;
+    }
+
+    /**
+     * Names the JVM method of a method body, so that the calls bound to it
+     * can be translated before it is added, and returns the name.
+     */
+    public String declareMethod(
+            NStms body,
+            String name) {
+
+        String methodName = "m" + this.bodyToMethodNameMap.size() + "_"
+                + toIdentifier(name);
+        this.bodyToMethodNameMap.put(body, methodName);
+        return methodName;
+    }
+
+    /**
+     * Adds the JVM method of a declared method body, executing the given
+     * Code.
+     */
+    public void addMethod(
+            NStms body,
+            Code code) {
+
+        String methodName = this.bodyToMethodNameMap.get(body);
+        MethodWriter methodWriter = new MethodWriter(code.getName());
+        int maxArgCount = translate(code, methodWriter);
+        if (FIRST_ARG_LOCAL + maxArgCount > 0xFF) {
+            throw new RuntimeException("too many arguments in "
+                    + code.getName() + " to be compiled");
+        }
+
+        // operands of runtime calls come on top of the values of the Mino
+        // stack
+        writeMethod(ACC_PUBLIC | ACC_STATIC, methodName, METHOD_DESCRIPTOR,
+                methodWriter, code.getMaxStack() + 6, FIRST_ARG_LOCAL
+                        + maxArgCount);
+    }
+
+    /**
+     * Defines the hidden class in the package of the JvmClassBuilder, and
+     * returns a lookup on it.
+     */
+    public MethodHandles.Lookup define() {
+
+        MethodWriter classInitializer = new MethodWriter("<clinit>");
+        classInitializer.emitShort(MethodWriter.INVOKESTATIC,
+                this.constantPool.addMethodref("java/lang/invoke/MethodHandles",
+                        "lookup", "()Ljava/lang/invoke/MethodHandles$Lookup;"));
+        classInitializer.emitShort(MethodWriter.LDC_W,
+                this.constantPool.addString(ConstantDescs.DEFAULT_NAME));
+        classInitializer.emitShort(MethodWriter.LDC_W,
+                this.constantPool.addClass("[L" + OBJECT + ";"));
+        classInitializer.emitShort(MethodWriter.INVOKESTATIC,
+                this.constantPool.addMethodref("java/lang/invoke/MethodHandles",
+                        "classData", "(Ljava/lang/invoke/MethodHandles$Lookup;"
+                                + "Ljava/lang/String;Ljava/lang/Class;)L"
+                                + OBJECT + ";"));
+        classInitializer.emitShort(MethodWriter.CHECKCAST,
+                this.constantPool.addClass("[L" + OBJECT + ";"));
+        classInitializer.emitShort(MethodWriter.PUTSTATIC, constantsField());
+        classInitializer.emit(MethodWriter.RETURN);
+        writeMethod(ACC_STATIC, "<clinit>", "()V", classInitializer, 3, 0);
+
+        try {
+            return MethodHandles.lookup().defineHiddenClassWithClassData(
+                    toByteArray(), this.constants.toArray(), true);
+        }
+        catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private byte[] toByteArray() {
+
+        int thisClass = this.constantPool.addClass(this.internalName);
+        int superClass = this.constantPool.addClass(OBJECT);
+        int fieldName = this.constantPool.addUtf8(CONSTANTS_FIELD);
+        int fieldDescriptor = this.constantPool.addUtf8("[L" + OBJECT + ";");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(bytes);
+        try {
+            output.writeInt(0xCAFEBABE);
+            output.writeShort(0);
+            output.writeShort(CLASS_FILE_VERSION);
+            output.writeShort(this.constantPool.getCount());
+            output.write(this.constantPool.toByteArray());
+            output.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+            output.writeShort(thisClass);
+            output.writeShort(superClass);
+            output.writeShort(0);
+
+            output.writeShort(1);
+            output.writeShort(ACC_PRIVATE | ACC_STATIC | ACC_FINAL);
+            output.writeShort(fieldName);
+            output.writeShort(fieldDescriptor);
+            output.writeShort(0);
+
+            output.writeShort(this.methodCount);
+            output.write(this.methods.toByteArray());
+            output.writeShort(0);
+        }
+        catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private void writeMethod(
+            int accessFlags,
+            String name,
+            String descriptor,
+            MethodWriter methodWriter,
+            int maxStack,
+            int maxLocals) {
+
+        byte[] code = methodWriter.toByteArray();
+        DataOutputStream output = new DataOutputStream(this.methods);
+        try {
+            output.writeShort(accessFlags);
+            output.writeShort(this.constantPool.addUtf8(name));
+            output.writeShort(this.constantPool.addUtf8(descriptor));
+            output.writeShort(1);
+            output.writeShort(this.constantPool.addUtf8("Code"));
+            output.writeInt(12 + code.length);
+            output.writeShort(maxStack);
+            output.writeShort(maxLocals);
+            output.writeInt(code.length);
+            output.write(code);
+            output.writeShort(0);
+            output.writeShort(0);
+        }
+        catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        this.methodCount++;
+    }
+
+    /**
+     * Emits the JVM instructions of a Code, and returns the largest argument
+     * count of its calls. Each Mino instruction becomes a short sequence
+     * operating on the JVM operand stack, and every Mino offset is a label.
+     */
+    private int translate(
+            Code code,
+            MethodWriter methodWriter) {
+
+        byte[] instructions = code.getInstructions();
+        Object[] codeConstants = code.getConstants();
+        int maxArgCount = 0;
+        int pc = 0;
+
+        while (pc < instructions.length) {
+            methodWriter.placeLabel(pc);
+            int opcode = instructions[pc];
+            int operand1 = 0;
+            int operand2 = 0;
+            if (Opcode.getOperandCount(opcode) > 0) {
+                operand1 = operand(instructions, pc + 1);
+            }
+            if (Opcode.getOperandCount(opcode) > 1) {
+                operand2 = operand(instructions, pc + 3);
+            }
+            pc += 1 + 2 * Opcode.getOperandCount(opcode);
+
+            switch (opcode) {
+            case Opcode.CONST:
+                emitConstant(methodWriter, codeConstants[operand1], INSTANCE);
+                break;
+            case Opcode.SELF:
+                emitReceiver(methodWriter);
+                break;
+            case Opcode.LOAD_VAR:
+                methodWriter.emitLoad(FRAME_LOCAL);
+                methodWriter.emitInt(operand1);
+                emitInvokeVirtual(methodWriter, FRAME, "getVar", "(I)L"
+                        + INSTANCE + ";");
+                break;
+            case Opcode.STORE_VAR:
+                methodWriter.emitLoad(FRAME_LOCAL);
+                methodWriter.emitInt(operand1);
+                emitRuntimeCall(methodWriter, "setVar", "(L" + INSTANCE
+                        + ";L" + FRAME + ";I)V");
+                break;
+            case Opcode.LOAD_FIELD:
+                emitReceiver(methodWriter);
+                methodWriter.emitInt(operand1);
+                emitInvokeVirtual(methodWriter, INSTANCE, "getField", "(I)L"
+                        + INSTANCE + ";");
+                break;
+            case Opcode.STORE_FIELD:
+                methodWriter.emitLoad(FRAME_LOCAL);
+                methodWriter.emitInt(operand1);
+                emitRuntimeCall(methodWriter, "setField", "(L" + INSTANCE
+                        + ";L" + FRAME + ";I)V");
+                break;
+            case Opcode.NEW:
+                emitConstant(methodWriter, codeConstants[operand1],
+                        CLASS_INFO);
+                emitInvokeVirtual(methodWriter, CLASS_INFO, "newInstance",
+                        "()L" + INSTANCE + ";");
+                break;
+            case Opcode.IS:
+                methodWriter.emitLoad(RUNTIME_LOCAL);
+                emitRuntimeCall(methodWriter, "is", "(L" + INSTANCE + ";L"
+                        + INSTANCE + ";L" + RUNTIME + ";)L" + INSTANCE + ";");
+                break;
+            case Opcode.ISA:
+                methodWriter.emitLoad(RUNTIME_LOCAL);
+                emitConstant(methodWriter, codeConstants[operand1],
+                        CLASS_INFO);
+                emitRuntimeCall(methodWriter, "isa", "(L" + INSTANCE + ";L"
+                        + RUNTIME + ";L" + CLASS_INFO + ";)L" + INSTANCE
+                        + ";");
+                break;
+            case Opcode.NOT:
+                methodWriter.emitLoad(RUNTIME_LOCAL);
+                emitConstant(methodWriter, codeConstants[operand1], TOKEN);
+                emitRuntimeCall(methodWriter, "not", "(L" + INSTANCE + ";L"
+                        + RUNTIME + ";L" + TOKEN + ";)L" + INSTANCE + ";");
+                break;
+            case Opcode.EQ:
+            case Opcode.NOT_EQ:
+                emitRuntimeAndFrame(methodWriter);
+                emitConstant(methodWriter, codeConstants[operand1], TOKEN);
+                emitRuntimeCall(methodWriter, opcode == Opcode.EQ ? "eq"
+                        : "notEq", "(L" + INSTANCE + ";L" + INSTANCE + ";L"
+                        + RUNTIME + ";L" + FRAME + ";L" + TOKEN + ";)L"
+                        + INSTANCE + ";");
+                break;
+            case Opcode.LT:
+            case Opcode.LTE:
+            case Opcode.GT:
+            case Opcode.GTE:
+                emitRuntimeAndFrame(methodWriter);
+                emitConstant(methodWriter, codeConstants[operand1], TOKEN);
+                methodWriter.emitShort(MethodWriter.GETSTATIC,
+                        this.constantPool.addFieldref(COMPARISON,
+                                getComparisonName(opcode), "L" + COMPARISON
+                                        + ";"));
+                emitRuntimeCall(methodWriter, "compare", "(L" + INSTANCE
+                        + ";L" + INSTANCE + ";L" + RUNTIME + ";L" + FRAME
+                        + ";L" + TOKEN + ";L" + COMPARISON + ";)L" + INSTANCE
+                        + ";");
+                break;
+            case Opcode.ADD:
+            case Opcode.MINUS:
+            case Opcode.MULT:
+            case Opcode.DIV:
+            case Opcode.MODUL: {
+                Object operatorToken = codeConstants[operand1];
+                emitRuntimeAndFrame(methodWriter);
+                emitConstant(methodWriter, operatorToken, TOKEN);
+                methodWriter.emitShort(MethodWriter.LDC_W,
+                        this.constantPool.addString(opcode == Opcode.ADD
+                                ? "+ method"
+                                : ((Token) operatorToken)
+                                        .getText()));
+                emitRuntimeCall(methodWriter, "operator", "(L" + INSTANCE
+                        + ";L" + INSTANCE + ";L" + RUNTIME + ";L" + FRAME
+                        + ";L" + TOKEN + ";Ljava/lang/String;)L" + INSTANCE
+                        + ";");
+                break;
+            }
+            case Opcode.CALL:
+            case Opcode.SELF_CALL:
+                maxArgCount = Math.max(maxArgCount, operand2);
+                emitCall(methodWriter, (NId) codeConstants[operand1],
+                        operand2, opcode == Opcode.SELF_CALL);
+                break;
+            case Opcode.POP:
+                methodWriter.emit(MethodWriter.POP);
+                break;
+            case Opcode.JUMP:
+                methodWriter.emitBranch(MethodWriter.GOTO, operand1);
+                break;
+            case Opcode.JUMP_IF_NOT_TRUE:
+                methodWriter.emitLoad(RUNTIME_LOCAL);
+                emitRuntimeCall(methodWriter, "isTrue", "(L" + INSTANCE
+                        + ";L" + RUNTIME + ";)Z");
+                methodWriter.emitBranch(MethodWriter.IFEQ, operand1);
+                break;
+            case Opcode.JUMP_IF_FALSE:
+                methodWriter.emitLoad(RUNTIME_LOCAL);
+                emitConstant(methodWriter, codeConstants[operand2], TOKEN);
+                emitRuntimeCall(methodWriter, "isFalse", "(L" + INSTANCE
+                        + ";L" + RUNTIME + ";L" + TOKEN + ";)Z");
+                methodWriter.emitBranch(MethodWriter.IFNE, operand1);
+                break;
+            case Opcode.SIMPLIFY:
+                emitRuntimeAndFrame(methodWriter);
+                emitConstant(methodWriter, codeConstants[operand1], FOLDING);
+                emitRuntimeCall(methodWriter, "simplify", "(L" + INSTANCE
+                        + ";L" + RUNTIME + ";L" + FRAME + ";L" + FOLDING
+                        + ";)L" + INSTANCE + ";");
+                break;
+            case Opcode.FOR_START:
+                emitRuntimeAndFrame(methodWriter);
+                methodWriter.emitInt(operand1);
+                emitConstant(methodWriter, codeConstants[operand2], TOKEN);
+                emitRuntimeCall(methodWriter, "forStart", "(L" + INSTANCE
+                        + ";L" + INSTANCE + ";L" + INSTANCE + ";L" + RUNTIME
+                        + ";L" + FRAME + ";IL" + TOKEN + ";)L" + INSTANCE
+                        + ";");
+                break;
+            case Opcode.FOR_NEXT:
+                methodWriter.emitLoad(FRAME_LOCAL);
+                methodWriter.emitInt(operand1);
+                emitInvokeVirtual(methodWriter, FRAME, "nextCounter", "(I)Z");
+                methodWriter.emitBranch(MethodWriter.IFNE, operand2);
+                break;
+            case Opcode.LOAD_COUNTER:
+                emitRuntimeAndFrame(methodWriter);
+                methodWriter.emitInt(operand1);
+                emitRuntimeCall(methodWriter, "counter", "(L" + RUNTIME + ";L"
+                        + FRAME + ";I)L" + INSTANCE + ";");
+                break;
+            case Opcode.RETURN_VALUE:
+                methodWriter.emitLoad(FRAME_LOCAL);
+                methodWriter.emit(MethodWriter.SWAP);
+                emitInvokeVirtual(methodWriter, FRAME, "setReturnValue", "(L"
+                        + INSTANCE + ";)V");
+                methodWriter.emit(MethodWriter.RETURN);
+                break;
+            case Opcode.RETURN:
+                methodWriter.emit(MethodWriter.RETURN);
+                break;
+            default:
+                throw new RuntimeException("invalid opcode " + opcode);
+            }
+        }
+
+        return maxArgCount;
+    }
+
+    /**
+     * Emits a call whose arguments are on the stack, above its receiver
+     * unless it is a self call. The arguments go through the argument
+     * locals into the frame of the callee. When the site is bound, a
+     * receiver that passes the guard of the site gets the bound method
+     * through its entry method instead.
+     */
+    private void emitCall(
+            MethodWriter methodWriter,
+            NId id,
+            int argCount,
+            boolean selfCall) {
+
+        for (int i = argCount - 1; i >= 0; i--) {
+            methodWriter.emitStore(FIRST_ARG_LOCAL + i);
+        }
+
+        if (selfCall) {
+            emitReceiver(methodWriter);
+        }
+
+        InlineCache inlineCache = this.runtime.getInlineCache(id);
+        String entryName = getEntryNameOrNull(inlineCache, argCount);
+        int endLabel = methodWriter.newLabel();
+        if (entryName != null) {
+            int genericLabel = methodWriter.newLabel();
+            methodWriter.emit(MethodWriter.DUP);
+            emitConstant(methodWriter, inlineCache, INLINE_CACHE);
+            emitConstant(methodWriter, id, ID);
+            emitRuntimeCall(methodWriter, "isBound", "(L" + INSTANCE + ";L"
+                    + INLINE_CACHE + ";L" + ID + ";)Z");
+            methodWriter.emitBranch(MethodWriter.IFEQ, genericLabel);
+
+            for (int i = 0; i < argCount; i++) {
+                methodWriter.emitLoad(FIRST_ARG_LOCAL + i);
+            }
+            emitRuntimeAndFrame(methodWriter);
+            emitConstant(methodWriter, id, ID);
+            methodWriter.emitShort(MethodWriter.INVOKESTATIC,
+                    this.constantPool.addMethodref(this.internalName,
+                            entryName, getEntryDescriptor(argCount)));
+            methodWriter.emitBranch(MethodWriter.GOTO, endLabel);
+            methodWriter.placeLabel(genericLabel);
+        }
+
+        emitRuntimeAndFrame(methodWriter);
+        emitConstant(methodWriter, inlineCache, INLINE_CACHE);
+        emitConstant(methodWriter, id, ID);
+        emitRuntimeCall(methodWriter, "newFrame", "(L" + INSTANCE + ";L"
+                + RUNTIME + ";L" + FRAME + ";L" + INLINE_CACHE + ";L" + ID
+                + ";)L" + FRAME + ";");
+        for (int i = 0; i < argCount; i++) {
+            methodWriter.emit(MethodWriter.DUP);
+            methodWriter.emitLoad(FIRST_ARG_LOCAL + i);
+            emitInvokeVirtual(methodWriter, FRAME, "setParam", "(L"
+                    + INSTANCE + ";)V");
+        }
+        methodWriter.emitLoad(RUNTIME_LOCAL);
+        emitConstant(methodWriter, inlineCache, INLINE_CACHE);
+        emitConstant(methodWriter, id, ID);
+        emitRuntimeCall(methodWriter, "invoke", "(L" + FRAME + ";L" + RUNTIME
+                + ";L" + INLINE_CACHE + ";L" + ID + ";)L" + INSTANCE + ";");
+        methodWriter.placeLabel(endLabel);
+    }
+
+    /**
+     * Returns the name of the entry method invoking the method a site is
+     * bound to, or null when the site must go through its inline cache: it
+     * is not bound, its method is primitive or memoized, or its call is in
+     * tail position.
+     */
+    private String getEntryNameOrNull(
+            InlineCache inlineCache,
+            int argCount) {
+
+        MethodInfo invokedMethod = inlineCache.getBoundMethodOrNull();
+        if (invokedMethod == null || inlineCache.isTailCall()
+                || invokedMethod.getMemoCache() != null
+                || argCount + 5 > 0xFF) {
+            return null;
+        }
+
+        String methodName = this.bodyToMethodNameMap.get(invokedMethod
+                .getBody());
+        if (methodName == null) {
+            return null;
+        }
+
+        String entryName = this.methodToEntryNameMap.get(invokedMethod);
+        if (entryName == null) {
+            entryName = "enter_" + methodName;
+            addEntry(invokedMethod, methodName, entryName, argCount);
+            this.methodToEntryNameMap.put(invokedMethod, entryName);
+        }
+
+        return entryName;
+    }
+
+    /**
+     * Adds the entry method of a Mino method. It takes the receiver, the
+     * arguments, the runtime, the frame of the caller and the call site,
+     * and runs the JVM method of the Mino method in a new frame.
+     */
+    private void addEntry(
+            MethodInfo invokedMethod,
+            String methodName,
+            String entryName,
+            int argCount) {
+
+        int runtimeLocal = 1 + argCount;
+        int frameLocal = runtimeLocal + 1;
+        int idLocal = frameLocal + 1;
+        int calleeFrameLocal = idLocal + 1;
+
+        MethodWriter methodWriter = new MethodWriter(entryName);
+        methodWriter.emitLoad(0);
+        methodWriter.emitLoad(runtimeLocal);
+        methodWriter.emitLoad(frameLocal);
+        emitConstant(methodWriter, invokedMethod, METHOD_INFO);
+        emitRuntimeCall(methodWriter, "newBoundFrame", "(L" + INSTANCE + ";L"
+                + RUNTIME + ";L" + FRAME + ";L" + METHOD_INFO + ";)L" + FRAME
+                + ";");
+        methodWriter.emitStore(calleeFrameLocal);
+
+        for (int i = 0; i < argCount; i++) {
+            methodWriter.emitLoad(calleeFrameLocal);
+            methodWriter.emitLoad(1 + i);
+            emitInvokeVirtual(methodWriter, FRAME, "setParam", "(L"
+                    + INSTANCE + ";)V");
+        }
+
+        methodWriter.emitLoad(calleeFrameLocal);
+        methodWriter.emitLoad(runtimeLocal);
+        methodWriter.emitLoad(idLocal);
+        emitRuntimeCall(methodWriter, "enterFrame", "(L" + FRAME + ";L"
+                + RUNTIME + ";L" + ID + ";)V");
+
+        methodWriter.emitLoad(runtimeLocal);
+        methodWriter.emitLoad(calleeFrameLocal);
+        methodWriter.emitShort(MethodWriter.INVOKESTATIC,
+                this.constantPool.addMethodref(this.internalName, methodName,
+                        METHOD_DESCRIPTOR));
+
+        methodWriter.emitLoad(calleeFrameLocal);
+        methodWriter.emitLoad(runtimeLocal);
+        emitRuntimeCall(methodWriter, "returnFrom", "(L" + FRAME + ";L"
+                + RUNTIME + ";)L" + INSTANCE + ";");
+        methodWriter.emit(MethodWriter.ARETURN);
+
+        writeMethod(ACC_PRIVATE | ACC_STATIC, entryName,
+                getEntryDescriptor(argCount), methodWriter, 5,
+                calleeFrameLocal + 1);
+    }
+
+    private static String getEntryDescriptor(
+            int argCount) {
+
+        StringBuilder descriptor = new StringBuilder("(");
+        for (int i = 0; i <= argCount; i++) {
+            descriptor.append("L" + INSTANCE + ";");
+        }
+
+        return descriptor.append("L" + RUNTIME + ";L" + FRAME + ";L" + ID
+                + ";)L" + INSTANCE + ";").toString();
+    }
+
+    private void emitConstant(
+            MethodWriter methodWriter,
+            Object constant,
+            String type) {
+
+        if (constant == null) {
+            methodWriter.emit(MethodWriter.ACONST_NULL);
+            return;
+        }
+
+        Integer index = this.constantToIndexMap.get(constant);
+        if (index == null) {
+            index = this.constants.size();
+            if (index > Short.MAX_VALUE) {
+                throw new RuntimeException("too many constants in "
+                        + this.internalName);
+            }
+
+            this.constants.add(constant);
+            this.constantToIndexMap.put(constant, index);
+        }
+
+        methodWriter.emitShort(MethodWriter.GETSTATIC, constantsField());
+        methodWriter.emitInt(index);
+        methodWriter.emit(MethodWriter.AALOAD);
+        methodWriter.emitShort(MethodWriter.CHECKCAST,
+                this.constantPool.addClass(type));
+    }
+
+    private void emitReceiver(
+            MethodWriter methodWriter) {
+
+        methodWriter.emitLoad(FRAME_LOCAL);
+        emitInvokeVirtual(methodWriter, FRAME, "getReceiver", "()L" + INSTANCE
+                + ";");
+    }
+
+    private void emitRuntimeAndFrame(
+            MethodWriter methodWriter) {
+
+        methodWriter.emitLoad(RUNTIME_LOCAL);
+        methodWriter.emitLoad(FRAME_LOCAL);
+    }
+
+    private void emitRuntimeCall(
+            MethodWriter methodWriter,
+            String name,
+            String descriptor) {
+
+        methodWriter.emitShort(MethodWriter.INVOKESTATIC,
+                this.constantPool.addMethodref(RUNTIME, name, descriptor));
+    }
+
+    private void emitInvokeVirtual(
+            MethodWriter methodWriter,
+            String owner,
+            String name,
+            String descriptor) {
+
+        methodWriter.emitShort(MethodWriter.INVOKEVIRTUAL,
+                this.constantPool.addMethodref(owner, name, descriptor));
+    }
+
+    private int constantsField() {
+
+        return this.constantPool.addFieldref(this.internalName,
+                CONSTANTS_FIELD, "[L" + OBJECT + ";");
+    }
+
+    private static String getComparisonName(
+            int opcode) {
+
+        switch (opcode) {
+        case Opcode.LT:
+            return "LOWER_THAN";
+        case Opcode.LTE:
+            return "LOWER_THAN_EQUAL";
+        case Opcode.GT:
+            return "GREATER_THAN";
+        default:
+            return "GREATER_THAN_EQUAL";
+        }
+    }
+
+    private static int operand(
+            byte[] instructions,
+            int pc) {
+
+        return ((instructions[pc] & 0xFF) << 8) | (instructions[pc + 1] & 0xFF);
+    }
+
+    private static String toIdentifier(
+            String name) {
+
+        StringBuilder identifier = new StringBuilder();
+        for (char c : name.toCharArray()) {
+            identifier.append(Character.isLetterOrDigit(c) ? c : '_');
+        }
+
+        return identifier.toString();
+    }
+}
@@ -0,0 +1,296 @@
+/* This file is part of Mino.
+ *
+ * See the NOTICE file distributed with this work for copyright information.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package mino.jvm;
+
+import mino.exception.*;
+import mino.language_mino.*;
+import mino.structure.*;
+import mino.walker.*;
+
+/**
+ * Operations invoked by the generated JVM code. Operands come first, in
+ * the order the generated code pushes them, followed by the runtime, the
+ * current frame and the constants of the instruction.
+ */
+public final class JvmRuntime {
+
+    private final InterpreterEngine interpreterEngine;
+
+    private final BooleanClassInfo booleanClassInfo;
+
+    public JvmRuntime(
+            InterpreterEngine interpreterEngine,
+            ClassTable classTable) {
+
+        this.interpreterEngine = interpreterEngine;
+        this.booleanClassInfo = (BooleanClassInfo) classTable
+                .getBooleanClassInfoOrNull();
+    }
+
+    public static void setVar(
+            Instance value,
+            Frame frame,
+            int slot) {
+
+        frame.setVar(slot, value);
+    }
+
+    public static void setField(
+            Instance value,
+            Frame frame,
+            int offset) {
+
+        frame.getReceiver().setField(offset, value);
+    }
+
+    public static Instance is(
+            Instance left,
+            Instance right,
+            JvmRuntime runtime) {
+
+        return runtime.interpreterEngine.toBoolean(Instance.same(left,
+                right));
+    }
+
+    public static Instance isa(
+            Instance value,
+            JvmRuntime runtime,
+            ClassInfo classInfo) {
+
+        return runtime.interpreterEngine.toBoolean(value == null
+                || value.isa(classInfo));
+    }
+
+    public static Instance not(
+            Instance value,
+            JvmRuntime runtime,
+            Token notToken) {
+
+        return runtime.interpreterEngine.not(value, notToken);
+    }
+
+    public static Instance simplify(
+            Instance value,
+            JvmRuntime runtime,
+            Frame frame,
+            Folding folding) {
+
+        return runtime.interpreterEngine.simplify(frame, folding, value);
+    }
+
+    public static Instance eq(
+            Instance left,
+            Instance right,
+            JvmRuntime runtime,
+            Frame frame,
+            Token operatorToken) {
+
+        if (left == null || right == null) {
+            return runtime.interpreterEngine.toBoolean(Instance.same(left,
+                right));
+        }
+
+        return runtime.interpreterEngine.invokeOperator(frame, left, right,
+                operatorToken);
+    }
+
+    public static Instance notEq(
+            Instance left,
+            Instance right,
+            JvmRuntime runtime,
+            Frame frame,
+            Token operatorToken) {
+
+        if (left == null || right == null) {
+            return runtime.interpreterEngine.toBoolean(left != right);
+        }
+
+        return runtime.interpreterEngine.invokeOperator(frame, left, right,
+                operatorToken);
+    }
+
+    public static Instance compare(
+            Instance left,
+            Instance right,
+            JvmRuntime runtime,
+            Frame frame,
+            Token operatorToken,
+            Comparison comparison) {
+
+        return runtime.interpreterEngine.compare(frame, left, right,
+                operatorToken, comparison);
+    }
+
+    public static Instance operator(
+            Instance left,
+            Instance right,
+            JvmRuntime runtime,
+            Frame frame,
+            Token operatorToken,
+            String operatorName) {
+
+        if (left == null) {
+            throw new InterpreterException("left argument of "
+                    + operatorName + " is null", operatorToken);
+        }
+        else if (right == null) {
+            throw new InterpreterException("right argument of "
+                    + operatorName + " is null", operatorToken);
+        }
+
+        return runtime.interpreterEngine.invokeOperator(frame, left, right,
+                operatorToken);
+    }
+
+    /**
+     * Returns the frame of a call, for the method found by the inline cache
+     * of the site. The generated code then sets its parameters and invokes
+     * it.
+     */
+    public static Frame newFrame(
+            Instance receiver,
+            JvmRuntime runtime,
+            Frame frame,
+            InlineCache inlineCache,
+            NId id) {
+
+        nullCheckReceiver(receiver, id);
+        MethodInfo invokedMethod = inlineCache.getMethodInfo(receiver
+                .getClassInfo());
+        return runtime.interpreterEngine.newFrame(frame, receiver,
+                invokedMethod);
+    }
+
+    public static Instance invoke(
+            Frame calleeFrame,
+            JvmRuntime runtime,
+            InlineCache inlineCache,
+            NId id) {
+
+        return runtime.interpreterEngine.invoke(calleeFrame
+                .getInvokedMethod(), calleeFrame, id, inlineCache.isTailCall());
+    }
+
+    /**
+     * Returns whether the receiver of a bound site gets the bound method,
+     * which the generated code then invokes directly.
+     */
+    public static boolean isBound(
+            Instance receiver,
+            InlineCache inlineCache,
+            NId id) {
+
+        nullCheckReceiver(receiver, id);
+        return inlineCache.isBound(receiver.getClassInfo());
+    }
+
+    /**
+     * Returns the frame of a direct invocation of a method.
+     */
+    public static Frame newBoundFrame(
+            Instance receiver,
+            JvmRuntime runtime,
+            Frame frame,
+            MethodInfo invokedMethod) {
+
+        return runtime.interpreterEngine.newFrame(frame, receiver,
+                invokedMethod);
+    }
+
+    public static void enterFrame(
+            Frame calleeFrame,
+            JvmRuntime runtime,
+            NId id) {
+
+        runtime.interpreterEngine.enterFrame(calleeFrame, id);
+    }
+
+    public static Instance returnFrom(
+            Frame calleeFrame,
+            JvmRuntime runtime) {
+
+        return runtime.interpreterEngine.returnFrom(calleeFrame);
+    }
+
+    /**
+     * Returns whether a condition is true. Anything else, null included,
+     * is treated as false.
+     */
+    public static boolean isTrue(
+            Instance value,
+            JvmRuntime runtime) {
+
+        return value == runtime.booleanClassInfo.getTrue();
+    }
+
+    /**
+     * Returns whether a loop condition is false, and rejects null.
+     */
+    public static boolean isFalse(
+            Instance value,
+            JvmRuntime runtime,
+            Token location) {
+
+        if (value == null) {
+            throw new InterpreterException("expression is null", location);
+        }
+
+        return value == runtime.booleanClassInfo.getFalse();
+    }
+
+    public static Instance forStart(
+            Instance from,
+            Instance to,
+            Instance step,
+            JvmRuntime runtime,
+            Frame frame,
+            int slot,
+            Token location) {
+
+        return runtime.interpreterEngine.toBoolean(runtime.interpreterEngine
+                .startCounter(frame, slot, from, to, step, location));
+    }
+
+    public static Instance counter(
+            JvmRuntime runtime,
+            Frame frame,
+            int slot) {
+
+        return runtime.interpreterEngine.getCounter(frame, slot);
+    }
+
+    /**
+     * Returns the inline cache of a call site, which the generated code
+     * holds as a constant.
+     */
+    public InlineCache getInlineCache(
+            NId id) {
+
+        return this.interpreterEngine.getInlineCache(id);
+    }
+
+    private static void nullCheckReceiver(
+            Instance receiver,
+            NId id) {
+
+        if (receiver == null) {
+            throw new InterpreterException("receiver of " + id.getText()
+                    + " is null", id);
+        }
+    }
+}
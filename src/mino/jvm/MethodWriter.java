@@ -0,0 +1,187 @@
+/* This file is part of Mino.
+ *
+ * See the NOTICE file distributed with this work for copyright information.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package mino.jvm;
+
+import java.util.*;
+
+/**
+ * Accumulates the JVM instructions of a single method. Branches are emitted
+ * against labels, and their 16-bit relative offsets are resolved once every
+ * label is placed.
+ */
+public class MethodWriter {
+
+    public static final int ACONST_NULL = 0x01;
+
+    public static final int BIPUSH = 0x10;
+
+    public static final int SIPUSH = 0x11;
+
+    public static final int LDC_W = 0x13;
+
+    public static final int ALOAD = 0x19;
+
+    public static final int AALOAD = 0x32;
+
+    public static final int ASTORE = 0x3A;
+
+    public static final int POP = 0x57;
+
+    public static final int DUP = 0x59;
+
+    public static final int SWAP = 0x5F;
+
+    public static final int IFEQ = 0x99;
+
+    public static final int IFNE = 0x9A;
+
+    public static final int GOTO = 0xA7;
+
+    public static final int ARETURN = 0xB0;
+
+    public static final int RETURN = 0xB1;
+
+    public static final int GETSTATIC = 0xB2;
+
+    public static final int PUTSTATIC = 0xB3;
+
+    public static final int INVOKEVIRTUAL = 0xB6;
+
+    public static final int INVOKESTATIC = 0xB8;
+
+    public static final int CHECKCAST = 0xC0;
+
+    private final String name;
+
+    private byte[] code = new byte[256];
+
+    private int length;
+
+    private final List<int[]> branches = new ArrayList<int[]>();
+
+    private final Map<Integer, Integer> labelToOffsetMap = new HashMap<Integer, Integer>();
+
+    private int nextLabel = -1;
+
+    public MethodWriter(
+            String name) {
+
+        this.name = name;
+    }
+
+    public void emit(
+            int opcode) {
+
+        emitByte(opcode);
+    }
+
+    public void emitShort(
+            int opcode,
+            int operand) {
+
+        emitByte(opcode);
+        emitByte(operand >> 8);
+        emitByte(operand);
+    }
+
+    public void emitInt(
+            int value) {
+
+        if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            emitByte(BIPUSH);
+            emitByte(value);
+        }
+        else {
+            emitShort(SIPUSH, value);
+        }
+    }
+
+    public void emitLoad(
+            int local) {
+
+        emitByte(ALOAD);
+        emitByte(local);
+    }
+
+    public void emitStore(
+            int local) {
+
+        emitByte(ASTORE);
+        emitByte(local);
+    }
+
+    /**
+     * Emits a branch to a label, which may be placed before or after it.
+     */
+    public void emitBranch(
+            int opcode,
+            int label) {
+
+        this.branches.add(new int[] { this.length, label });
+        emitShort(opcode, 0);
+    }
+
+    /**
+     * Returns a new label. New labels are negative, so that they never clash
+     * with labels numbered by the caller from 0.
+     */
+    public int newLabel() {
+
+        return this.nextLabel--;
+    }
+
+    public void placeLabel(
+            int label) {
+
+        this.labelToOffsetMap.put(label, this.length);
+    }
+
+    public byte[] toByteArray() {
+
+        if (this.length > 0xFFFF) {
+            throw new RuntimeException("body of " + this.name
+                    + " is too large to be compiled");
+        }
+
+        for (int[] branch : this.branches) {
+            int branchOffset = branch[0];
+            int relativeOffset = this.labelToOffsetMap.get(branch[1])
+                    - branchOffset;
+            if (relativeOffset < Short.MIN_VALUE
+                    || relativeOffset > Short.MAX_VALUE) {
+                throw new RuntimeException("body of " + this.name
+                        + " is too large to be compiled");
+            }
+
+            this.code[branchOffset + 1] = (byte) (relativeOffset >> 8);
+            this.code[branchOffset + 2] = (byte) relativeOffset;
+        }
+
+        return Arrays.copyOf(this.code, this.length);
+    }
+
+    private void emitByte(
+            int value) {
+
+        if (this.length == this.code.length) {
+            this.code = Arrays.copyOf(this.code, this.length * 2);
+        }
+
+        this.code[this.length++] = (byte) value;
+    }
+}
@@ -17,11 +17,11 @@
 
 package mino.structure;
 
+import java.util.*;
+
 import mino.exception.*;
 import mino.language_mino.*;
 
-import java.util.LinkedList;
-
 public class ClassInfo {
 
     private final ClassTable classTable;
@@ -34,7 +34,16 @@ public class ClassInfo {
 
     private final FieldTable fieldTable = new FieldTable(this);
 
-    private final LinkedList<ClassInfo> subTypes = new LinkedList<>();
+    private final List<ClassInfo> subClasses = new ArrayList<ClassInfo>();
+
+    /**
+     * Position of the class in a pre-order traversal of the hierarchy, or -1
+     * until the hierarchy is numbered. The subtypes of a class are exactly
+     * the classes numbered from its position to lastSubTypeOrder.
+     */
+    private int preOrder = -1;
+
+    private int lastSubTypeOrder;
 
     ClassInfo(
             ClassTable classTable,
@@ -84,6 +93,11 @@ public class ClassInfo {
         return this.definition.get_ClassName().getText();
     }
 
+    ClassTable getClassTable() {
+
+        return this.classTable;
+    }
+
     public MethodTable getMethodTable() {
 
         return this.methodTable;
@@ -107,26 +121,57 @@ public class ClassInfo {
     public boolean isa(
             ClassInfo classInfo) {
 
-        if (this == classInfo) {
-            return true;
-        }
+        if (this.preOrder < 0) {
+            // the hierarchy is not numbered yet
+            for (ClassInfo ancestor = this; ancestor != null; ancestor = ancestor.superClass) {
+                if (ancestor == classInfo) {
+                    return true;
+                }
+            }
 
-        if (this.superClass != null) {
-            return this.superClass.isa(classInfo);
+            return false;
         }
 
-        return false;
+        return this.preOrder >= classInfo.preOrder
+                && this.preOrder <= classInfo.lastSubTypeOrder;
+    }
+
+    public void addSubClass(
+            ClassInfo classInfo) {
+
+        this.subClasses.add(classInfo);
     }
 
-    public void addSubTypes(ClassInfo classInfo){
-        if(this.superClass != null){
-            this.superClass.addSubTypes(classInfo);
+    /**
+     * Numbers this class and its subtypes in pre-order, starting at the
+     * given position, and returns the next free position.
+     */
+    int number(
+            int preOrder,
+            ClassInfo[] preOrderClassInfos) {
+
+        this.preOrder = preOrder;
+        preOrderClassInfos[preOrder] = this;
+        int next = preOrder + 1;
+        for (ClassInfo subClass : this.subClasses) {
+            next = subClass.number(next, preOrderClassInfos);
         }
 
-        this.subTypes.add(classInfo);
+        this.lastSubTypeOrder = next - 1;
+        return next;
     }
 
-    public LinkedList<ClassInfo> getSubTypes(){
-        return this.subTypes;
+    /**
+     * Returns this class and all its subtypes, in pre-order. The list is a
+     * view of the numbered hierarchy and is not copied.
+     */
+    public List<ClassInfo> getSubTypes() {
+
+        if (this.preOrder < 0) {
+            throw new RuntimeException("the class hierarchy is not numbered");
+        }
+
+        return this.classTable.getPreOrderClassInfos().subList(this.preOrder,
+                this.lastSubTypeOrder + 1);
     }
 }
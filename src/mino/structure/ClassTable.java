@@ -26,6 +26,58 @@ public class ClassTable {
 
     private final Map<String, ClassInfo> nameToClassInfoMap = new LinkedHashMap<String, ClassInfo>();
 
+    private final Map<String, Integer> methodNameToSlotMap = new HashMap<String, Integer>();
+
+    private final TokenTable<Integer> variableToSlotTable = new TokenTable<Integer>();
+
+    private final TokenTable<Integer> fieldToOffsetTable = new TokenTable<Integer>();
+
+    private final TokenTable<Instance> literalToValueTable = new TokenTable<Instance>();
+
+    private final TokenTable<ClassInfo> classNameToClassInfoTable = new TokenTable<ClassInfo>();
+
+    private final Map<Node, ClassInfo> expressionToTypeMap = new IdentityHashMap<Node, ClassInfo>();
+
+    private final TokenTable<Folding> operatorToFoldingTable = new TokenTable<Folding>();
+
+    private boolean folded;
+
+    private final Map<Token, ClassInfo> siteToReceiverTypeMap = new IdentityHashMap<Token, ClassInfo>();
+
+    private final TokenTable<NExp[]> callToArgumentsTable = new TokenTable<NExp[]>();
+
+    private final Set<Token> tailCallSites = Collections.newSetFromMap(new IdentityHashMap<Token, Boolean>());
+
+    private final TokenTable<Boolean> counterReads = new TokenTable<Boolean>();
+
+    private List<ClassInfo> preOrderClassInfos;
+
+    private int mainLocalCount;
+
+    private final InternTable.Policy interningPolicy;
+
+    private final int interningMaximumSize;
+
+    private final List<InternTable<?>> internTables = new LinkedList<InternTable<?>>();
+
+    public ClassTable() {
+
+        this(InternTable.Policy.LRU, 4096);
+    }
+
+    /**
+     * Creates a class table whose built-in classes share their values
+     * according to the given policy. The maximum size only applies to the
+     * LRU policy.
+     */
+    public ClassTable(
+            InternTable.Policy interningPolicy,
+            int interningMaximumSize) {
+
+        this.interningPolicy = interningPolicy;
+        this.interningMaximumSize = interningMaximumSize;
+    }
+
     public ClassInfo add(
             NClassdef definition) {
 
@@ -74,6 +126,54 @@ public class ClassTable {
         return this.nameToClassInfoMap.get(name);
     }
 
+    Collection<ClassInfo> getClassInfos() {
+
+        return this.nameToClassInfoMap.values();
+    }
+
+    /**
+     * Returns the pure methods defined in Mino.
+     */
+    public Set<MethodInfo> getPureMethods() {
+
+        Set<MethodInfo> pureMethods = new LinkedHashSet<MethodInfo>();
+        for (ClassInfo classInfo : this.nameToClassInfoMap.values()) {
+            for (MethodInfo methodInfo : classInfo.getMethodTable()
+                    .getVirtualMethods()) {
+                if (methodInfo.isPure() && methodInfo.getBody() != null) {
+                    pureMethods.add(methodInfo);
+                }
+            }
+        }
+
+        return pureMethods;
+    }
+
+    /**
+     * Numbers the class hierarchy so that isa takes constant time. All the
+     * classes must have been added.
+     */
+    public void numberClasses() {
+
+        ClassInfo objectClassInfo = getObjectClassInfoOrNull();
+        if (objectClassInfo == null) {
+            throw new InterpreterException("class Object is not defined", null);
+        }
+
+        ClassInfo[] classInfos = new ClassInfo[this.nameToClassInfoMap.size()];
+        objectClassInfo.number(0, classInfos);
+        this.preOrderClassInfos = Collections.unmodifiableList(Arrays
+                .asList(classInfos));
+    }
+
+    /**
+     * Returns all the classes in a pre-order traversal of the hierarchy.
+     */
+    List<ClassInfo> getPreOrderClassInfos() {
+
+        return this.preOrderClassInfos;
+    }
+
     public ClassInfo getBooleanClassInfoOrNull() {
 
         return this.nameToClassInfoMap.get("Boolean");
@@ -93,31 +193,281 @@ public class ClassTable {
         return this.nameToClassInfoMap.get("Float");
     }
 
+    /**
+     * Returns the virtual table slot of a method name. A name seen for the
+     * first time gets the next free slot.
+     */
+    public int getMethodSlot(
+            String name) {
+
+        Integer slot = this.methodNameToSlotMap.get(name);
+        if (slot == null) {
+            slot = this.methodNameToSlotMap.size();
+            this.methodNameToSlotMap.put(name, slot);
+        }
+
+        return slot;
+    }
+
+    /**
+     * Records the frame slot assigned by the semantic analysis to a variable
+     * occurrence.
+     */
+    public void setVariableSlot(
+            NId id,
+            int slot) {
+
+        this.variableToSlotTable.put(id, slot);
+    }
+
+    /**
+     * Records a variable occurrence that reads the counter of a for loop.
+     */
+    public void setCounter(
+            NId id) {
+
+        this.counterReads.put(id, Boolean.TRUE);
+    }
+
+    public boolean isCounter(
+            NId id) {
+
+        return this.counterReads.get(id) != null;
+    }
+
+    public int getVariableSlot(
+            NId id) {
+
+        Integer slot = this.variableToSlotTable.get(id);
+        if (slot == null) {
+            throw new InterpreterException("unknown variable " + id.getText(),
+                    id);
+        }
+
+        return slot;
+    }
+
+    /**
+     * Records the instance field offset resolved by the semantic analysis
+     * for a field occurrence.
+     */
+    public void setFieldOffset(
+            NFieldName fieldName,
+            int offset) {
+
+        this.fieldToOffsetTable.put(fieldName, offset);
+    }
+
+    public int getFieldOffset(
+            NFieldName fieldName) {
+
+        Integer offset = this.fieldToOffsetTable.get(fieldName);
+        if (offset == null) {
+            throw new InterpreterException("unknown field "
+                    + fieldName.getText(), fieldName);
+        }
+
+        return offset;
+    }
+
+    /**
+     * Records the constant instance resolved by the linker for a literal.
+     */
+    public void setLiteralValue(
+            Token literal,
+            Instance value) {
+
+        this.literalToValueTable.put(literal, value);
+    }
+
+    public Instance getLiteralValue(
+            Token literal) {
+
+        Instance value = this.literalToValueTable.get(literal);
+        if (value == null) {
+            throw new RuntimeException("literal was not linked");
+        }
+
+        return value;
+    }
+
+    /**
+     * Records the class resolved by the linker for a class name occurrence.
+     */
+    public void setReferencedClass(
+            NClassName className,
+            ClassInfo classInfo) {
+
+        this.classNameToClassInfoTable.put(className, classInfo);
+    }
+
+    public ClassInfo getReferencedClass(
+            NClassName className) {
+
+        ClassInfo classInfo = this.classNameToClassInfoTable.get(className);
+        if (classInfo == null) {
+            throw new InterpreterException("class " + className.getText()
+                    + " was not linked", className);
+        }
+
+        return classInfo;
+    }
+
+    /**
+     * Records the static type computed by the semantic analysis for an
+     * expression.
+     */
+    public void setExpressionType(
+            Node expression,
+            ClassInfo classInfo) {
+
+        this.expressionToTypeMap.put(expression, classInfo);
+    }
+
+    /**
+     * Returns the static type of an expression, or null when it is unknown.
+     */
+    public ClassInfo getExpressionType(
+            Node expression) {
+
+        return this.expressionToTypeMap.get(expression);
+    }
+
+    /**
+     * Records the folding of an operator expression by the constant folder,
+     * identified by the token of its operator.
+     */
+    public void setFolding(
+            Token operatorToken,
+            Folding folding) {
+
+        this.operatorToFoldingTable.put(operatorToken, folding);
+        this.folded = true;
+    }
+
+    /**
+     * Returns the folding of an operator expression, or null when the
+     * expression was not folded.
+     */
+    public Folding getFolding(
+            Token operatorToken) {
+
+        if (!this.folded) {
+            return null;
+        }
+
+        return this.operatorToFoldingTable.get(operatorToken);
+    }
+
+    /**
+     * Records a call site whose receiver type has a single implementation
+     * of the called method, according to the class hierarchy analysis.
+     */
+    public void setDevirtualizedSite(
+            Token site,
+            ClassInfo receiverType) {
+
+        this.siteToReceiverTypeMap.put(site, receiverType);
+    }
+
+    /**
+     * Returns the receiver type of a devirtualized call site, or null when
+     * the site was not devirtualized.
+     */
+    public ClassInfo getDevirtualizedReceiverType(
+            Token site) {
+
+        return this.siteToReceiverTypeMap.get(site);
+    }
+
+    /**
+     * Records a call site whose result is directly returned by a method.
+     */
+    public void setTailCall(
+            Token site) {
+
+        this.tailCallSites.add(site);
+    }
+
+    public boolean isTailCall(
+            Token site) {
+
+        return this.tailCallSites.contains(site);
+    }
+
+    public void setArguments(
+            NId call,
+            List<NExp> arguments) {
+
+        this.callToArgumentsTable.put(call,
+                arguments.toArray(new NExp[arguments.size()]));
+    }
+
+    /**
+     * Returns the argument expressions of a call site, in order. The array
+     * is shared by all the executions of the call.
+     */
+    public NExp[] getArguments(
+            NId call) {
+
+        NExp[] arguments = this.callToArgumentsTable.get(call);
+        if (arguments == null) {
+            throw new InterpreterException("unknown call " + call.getText(),
+                    call);
+        }
+
+        return arguments;
+    }
+
+    public int getMainLocalCount() {
+
+        return this.mainLocalCount;
+    }
+
+    public void setMainLocalCount(
+            int mainLocalCount) {
+
+        this.mainLocalCount = mainLocalCount;
+    }
+
+    <K> InternTable<K> newInternTable(
+            String name) {
+
+        InternTable<K> internTable = new InternTable<K>(name,
+                this.interningPolicy, this.interningMaximumSize);
+        this.internTables.add(internTable);
+        return internTable;
+    }
+
+    public void printInterningStatistics() {
+
+        for (InternTable<?> internTable : this.internTables) {
+            System.err.println(internTable.getStatistics());
+        }
+    }
+
     public void printVirtualTables(){
 
         for(Map.Entry<String, ClassInfo> classInfo : nameToClassInfoMap.entrySet()){
-            LinkedHashMap<String, MethodInfo> virtualTables = classInfo.getValue().getMethodTable().getVirtualTable();
+            List<MethodInfo> virtualMethods = classInfo.getValue().getMethodTable().getVirtualMethods();
 
-            if(virtualTables != null){
-                System.out.println("============== Virtual Table for " + classInfo.getKey() + " ==============");
-                int i = 0;
-                for(Map.Entry<String, MethodInfo> method : virtualTables.entrySet()){
-                    ++i;
-                    System.out.println(i + " - " + method.getValue().getClassInfo().getName() + "." + method.getKey());
-                }
+            System.out.println("============== Virtual Table for " + classInfo.getKey() + " ==============");
+            int i = 0;
+            for(MethodInfo method : virtualMethods){
+                ++i;
+                System.out.println(i + " - " + method.getClassInfo().getName() + "." + method.getName());
             }
         }
     }
 
     public void printSubTypesTables(){
 
+        // subtypes are listed in definition order
         for(Map.Entry<String, ClassInfo> classInfo : nameToClassInfoMap.entrySet()){
-            LinkedList<ClassInfo> subTypes = classInfo.getValue().getSubTypes();
-
-            if(subTypes != null){
-                System.out.println("============== SubTypes Table for " + classInfo.getKey() + " ==============");
-                int i = 0;
-                for(ClassInfo subType : subTypes){
+            System.out.println("============== SubTypes Table for " + classInfo.getKey() + " ==============");
+            int i = 0;
+            for(ClassInfo subType : nameToClassInfoMap.values()){
+                if(subType.isa(classInfo.getValue())){
                     ++i;
                     System.out.println(i + " - " + subType.getName());
                 }
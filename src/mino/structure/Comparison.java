@@ -0,0 +1,45 @@
+/* This file is part of Mino.
+ *
+ * See the NOTICE file distributed with this work for copyright information.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package mino.structure;
+
+/**
+ * Numeric comparison operators, applied to the result of a compare().
+ */
+public enum Comparison {
+    LOWER_THAN,
+    LOWER_THAN_EQUAL,
+    GREATER_THAN,
+    GREATER_THAN_EQUAL;
+
+    public boolean holds(
+            int compareResult) {
+
+        switch (this) {
+        case LOWER_THAN:
+            return compareResult < 0;
+        case LOWER_THAN_EQUAL:
+            return compareResult <= 0;
+        case GREATER_THAN:
+            return compareResult > 0;
+        case GREATER_THAN_EQUAL:
+            return compareResult >= 0;
+        default:
+            throw new RuntimeException("unhandled case");
+        }
+    }
+}
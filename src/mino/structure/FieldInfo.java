@@ -25,12 +25,16 @@ public class FieldInfo {
 
     private final NMember_Field definition;
 
+    private final int offset;
+
     FieldInfo(
             FieldTable fieldTable,
-            NMember_Field definition) {
+            NMember_Field definition,
+            int offset) {
 
         this.fieldTable = fieldTable;
         this.definition = definition;
+        this.offset = offset;
     }
 
     public String getName() {
@@ -38,6 +42,15 @@ public class FieldInfo {
         return this.definition.get_FieldName().getText();
     }
 
+    /**
+     * Returns the index of this field in the field array of instances. It is
+     * the same in the declaring class and in all its subclasses.
+     */
+    public int getOffset() {
+
+        return this.offset;
+    }
+
     public NClassName getClassName(){
 
         return this.definition.get_ClassName();
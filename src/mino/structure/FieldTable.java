@@ -28,6 +28,12 @@ public class FieldTable {
 
     private final Map<String, FieldInfo> nameToFieldInfoMap = new LinkedHashMap<String, FieldInfo>();
 
+    /**
+     * Fields of the class and of its super classes, by name. Built on first
+     * use from the one of the super class, which must be complete by then.
+     */
+    private Map<String, FieldInfo> nameToVisibleFieldInfoMap;
+
     private Set<FieldInfo> fields;
 
     FieldTable(
@@ -43,32 +49,68 @@ public class FieldTable {
         String name = nameToken.getText();
 
         ClassInfo superClassInfo = this.classInfo.getSuperClassInfoOrNull();
-        if (superClassInfo != null) {
-            if (superClassInfo.getFieldTable().contains(name)) {
-                throw new InterpreterException("field " + name
-                        + " exists in super class", nameToken);
-            }
-        }
-
         if (this.nameToFieldInfoMap.containsKey(name)) {
             throw new InterpreterException("duplicate definition of field "
                     + name, nameToken);
         }
 
-        this.nameToFieldInfoMap.put(name, new FieldInfo(this, definition));
+        if (getVisibleFields().containsKey(name)) {
+            throw new InterpreterException("field " + name
+                    + " exists in super class", nameToken);
+        }
+
+        // superclass fields come first, so that their offsets hold in
+        // instances of subclasses
+        int offset = this.nameToFieldInfoMap.size();
+        if (superClassInfo != null) {
+            offset += superClassInfo.getFieldTable().getFieldCount();
+        }
+
+        FieldInfo fieldInfo = new FieldInfo(this, definition, offset);
+        this.nameToFieldInfoMap.put(name, fieldInfo);
+        this.nameToVisibleFieldInfoMap.put(name, fieldInfo);
+    }
+
+    private Map<String, FieldInfo> getVisibleFields() {
+
+        if (this.nameToVisibleFieldInfoMap == null) {
+            Map<String, FieldInfo> visibleFields = new HashMap<String, FieldInfo>();
+
+            ClassInfo superClassInfo = this.classInfo.getSuperClassInfoOrNull();
+            if (superClassInfo != null) {
+                visibleFields.putAll(superClassInfo.getFieldTable()
+                        .getVisibleFields());
+            }
+
+            visibleFields.putAll(this.nameToFieldInfoMap);
+            this.nameToVisibleFieldInfoMap = visibleFields;
+        }
+
+        return this.nameToVisibleFieldInfoMap;
     }
 
     public boolean contains(
             String name) {
 
-        ClassInfo superClassInfo = this.classInfo.getSuperClassInfoOrNull();
-        if (superClassInfo != null) {
-            if (superClassInfo.getFieldTable().contains(name)) {
-                return true;
-            }
+        return getVisibleFields().containsKey(name);
+    }
+
+    public FieldInfo getFieldInfo(
+            NFieldName fieldName) {
+
+        String name = fieldName.getText();
+        FieldInfo fieldInfo = getVisibleFields().get(name);
+        if (fieldInfo != null) {
+            return fieldInfo;
         }
 
-        return this.nameToFieldInfoMap.containsKey(name);
+        throw new InterpreterException("class " + this.classInfo.getName()
+                + " has no " + name + " field", fieldName);
+    }
+
+    public int getFieldCount() {
+
+        return getFields().size();
     }
 
     public Set<FieldInfo> getFields() {
@@ -2,20 +2,18 @@ package mino.structure;
 
 import mino.language_mino.*;
 
-import java.util.LinkedHashMap;
-import java.util.Map;
-
 /**
  * Created by Lam on 09/02/2017.
  */
 public class FloatClassInfo
         extends ClassInfo{
 
-    private final Map<Float, Instance> valueMap = new LinkedHashMap<Float, Instance>();
+    private final InternTable<Float> internTable;
 
     FloatClassInfo(ClassTable classTable, NClassdef definition) {
 
         super(classTable, definition);
+        this.internTable = classTable.newInternTable("Float");
     }
 
     @Override
@@ -24,14 +22,53 @@ public class FloatClassInfo
         throw new RuntimeException("invalid instance creation");
     }
 
+    /**
+     * Returns an instance of a computed value. It is not shared, as the is
+     * operator compares Floats by value.
+     */
     public Instance newFloat(Float value){
-        Instance instance = this.valueMap.get(value);
+
+        return new FloatInstance(this, value);
+    }
+
+    /**
+     * Returns the instance of a literal, shared according to the interning
+     * policy.
+     */
+    public Instance internFloat(
+            Float value) {
+
+        Instance instance = this.internTable.get(value);
 
         if (instance == null) {
-            instance = new FloatInstance(this, value);
-            this.valueMap.put(value, instance);
+            instance = newFloat(value);
+            this.internTable.put(value, instance);
         }
 
         return instance;
     }
+
+    /**
+     * Applies an arithmetic operator to a Float and a numeric value. Returns
+     * null for a division by zero.
+     */
+    public Instance arithmetic(
+            char operator,
+            float left,
+            float right) {
+
+        switch (operator) {
+        case '+':
+            return newFloat(left + right);
+        case '-':
+            return newFloat(left - right);
+        case '*':
+            return newFloat(left * right);
+        default:
+            if (right == 0.0f) {
+                return null;
+            }
+            return newFloat(left / right);
+        }
+    }
 }
@@ -20,5 +20,20 @@ public class FloatInstance
         return this.value;
     }
 
+    @Override
+    protected boolean hasSameValue(
+            Instance other) {
+
+        // Float.equals, as the intern table keys on it
+        return other instanceof FloatInstance
+                && this.value.equals(((FloatInstance) other).value);
+    }
+
+    @Override
+    public Object getMemoKey() {
+
+        return this.value;
+    }
+
 
 }
@@ -0,0 +1,121 @@
+/* This file is part of Mino.
+ *
+ * See the NOTICE file distributed with this work for copyright information.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package mino.structure;
+
+import mino.language_mino.*;
+
+/**
+ * Result of the constant folder for an operator expression. The expression
+ * is either replaced by a constant value, or by a simpler operand expression
+ * that reports the original error at the original Token when it evaluates
+ * to null. As the static types are not sound, the value of the operand
+ * replaces the expression only when it has the class the folder expected;
+ * otherwise the operator of the Token is applied to it as usual, with the
+ * right operand of the folding for a binary operator.
+ */
+public class Folding {
+
+    private final Instance value;
+
+    private final Node expression;
+
+    private final Token token;
+
+    private final String nullMessage;
+
+    private final ClassInfo expectedClass;
+
+    private final Instance rightOperand;
+
+    private Folding(
+            Instance value,
+            Node expression,
+            Token token,
+            String nullMessage,
+            ClassInfo expectedClass,
+            Instance rightOperand) {
+
+        this.value = value;
+        this.expression = expression;
+        this.token = token;
+        this.nullMessage = nullMessage;
+        this.expectedClass = expectedClass;
+        this.rightOperand = rightOperand;
+    }
+
+    public static Folding constant(
+            Instance value) {
+
+        return new Folding(value, null, null, null, null, null);
+    }
+
+    /**
+     * Returns the simplification of an expression to one of its operands,
+     * valid when the operand is of the expected class. The right operand is
+     * null for a unary operator.
+     */
+    public static Folding simplification(
+            Node expression,
+            Token token,
+            String nullMessage,
+            ClassInfo expectedClass,
+            Instance rightOperand) {
+
+        return new Folding(null, expression, token, nullMessage,
+                expectedClass, rightOperand);
+    }
+
+    public boolean isConstant() {
+
+        return this.expression == null;
+    }
+
+    public Instance getValue() {
+
+        return this.value;
+    }
+
+    public Node getExpression() {
+
+        return this.expression;
+    }
+
+    public Token getToken() {
+
+        return this.token;
+    }
+
+    public String getNullMessage() {
+
+        return this.nullMessage;
+    }
+
+    /**
+     * Returns whether the value of the operand may replace the expression.
+     */
+    public boolean accepts(
+            Instance value) {
+
+        return value.getClassInfo() == this.expectedClass;
+    }
+
+    public Instance getRightOperand() {
+
+        return this.rightOperand;
+    }
+}
@@ -19,41 +19,186 @@ package mino.structure;
 
 import java.util.*;
 
-import mino.exception.*;
 import mino.language_mino.*;
 
 public class Frame {
 
-    private final Frame previousFrame;
+    private Frame previousFrame;
 
-    private final Instance receiver;
+    private Instance receiver;
 
-    private final MethodInfo invokedMethod;
+    private MethodInfo invokedMethod;
 
-    private final Map<String, Instance> varNameToValueMap = new LinkedHashMap<String, Instance>();
+    private Instance[] locals;
+
+    private int localCount;
+
+    private Instance[] operandStack;
 
     private Instance returnValue;
 
+    private boolean returned;
+
     private int nextParamIndex;
 
     private Token currentLocation;
 
+    private int elidedFrameCount;
+
+    // value, end and step of the for loop counter of each slot
+    private long[] counters;
+
     public Frame(
             Frame previousFrame,
             Instance receiver,
             MethodInfo invokedMethod) {
 
+        this(previousFrame, receiver, invokedMethod, invokedMethod
+                .getLocalCount());
+    }
+
+    public Frame(
+            Frame previousFrame,
+            Instance receiver,
+            MethodInfo invokedMethod,
+            int localCount) {
+
         this.previousFrame = previousFrame;
         this.receiver = receiver;
         this.invokedMethod = invokedMethod;
+        this.locals = new Instance[localCount];
+        this.localCount = localCount;
+    }
+
+    /**
+     * Prepares a released frame for a new invocation. The locals array is
+     * only replaced when the method needs more slots than it has.
+     */
+    void reuse(
+            Frame previousFrame,
+            Instance receiver,
+            MethodInfo invokedMethod) {
+
+        this.previousFrame = previousFrame;
+        this.receiver = receiver;
+        this.invokedMethod = invokedMethod;
+        this.localCount = invokedMethod.getLocalCount();
+        if (this.localCount > this.locals.length) {
+            this.locals = new Instance[this.localCount];
+        }
+    }
+
+    /**
+     * Drops the references held by a frame whose method has returned, so
+     * that it can be reused and does not keep instances alive.
+     */
+    void release() {
+
+        Arrays.fill(this.locals, 0, this.localCount, null);
+        this.previousFrame = null;
+        this.receiver = null;
+        this.invokedMethod = null;
+        this.returnValue = null;
+        this.returned = false;
+        this.nextParamIndex = 0;
+        this.currentLocation = null;
+        this.elidedFrameCount = 0;
+    }
+
+    /**
+     * Makes this frame, of a call in tail position, take the place of the
+     * frame of its caller, which returns to its own caller.
+     */
+    void replace(
+            Frame callerFrame) {
+
+        this.previousFrame = callerFrame.previousFrame;
+        this.elidedFrameCount = callerFrame.elidedFrameCount + 1;
+    }
+
+    /**
+     * Returns the number of frames of callers that were replaced by this
+     * frame through tail calls, and are missing from stack traces.
+     */
+    public int getElidedFrameCount() {
+
+        return this.elidedFrameCount;
+    }
+
+    /**
+     * Returns an operand stack of at least the given size for the bytecode
+     * of the invoked method. The array is kept with the frame and reused by
+     * the next invocations.
+     */
+    public Instance[] getOperandStack(
+            int size) {
+
+        if (this.operandStack == null || this.operandStack.length < size) {
+            this.operandStack = new Instance[size];
+        }
+
+        return this.operandStack;
     }
 
     public void setVar(
-            NId id,
+            int slot,
             Instance value) {
 
-        String name = id.getText();
-        this.varNameToValueMap.put(name, value);
+        this.locals[slot] = value;
+    }
+
+    /**
+     * Starts the counter of a for loop in the slot of its variable, and
+     * returns whether its first value is in the range of the loop. The end
+     * of the range is included.
+     */
+    public boolean startCounter(
+            int slot,
+            long from,
+            long to,
+            long step) {
+
+        int index = slot * 3;
+        if (this.counters == null) {
+            this.counters = new long[this.locals.length * 3];
+        }
+        else if (index >= this.counters.length) {
+            this.counters = Arrays.copyOf(this.counters,
+                    this.locals.length * 3);
+        }
+
+        this.counters[index] = from;
+        this.counters[index + 1] = to;
+        this.counters[index + 2] = step;
+        return step > 0 ? from <= to : from >= to;
+    }
+
+    /**
+     * Moves the counter of a for loop to its next value, and returns whether
+     * the value is still in the range of the loop.
+     */
+    public boolean nextCounter(
+            int slot) {
+
+        int index = slot * 3;
+        long value = this.counters[index];
+        long step = this.counters[index + 2];
+        long next = value + step;
+
+        // the value wraps around when it overflows past the end
+        if (step > 0 ? next > this.counters[index + 1] || next < value
+                : next < this.counters[index + 1] || next > value) {
+            return false;
+        }
+
+        this.counters[index] = next;
+        return true;
+    }
+
+    public long getCounter(
+            int slot) {
+
+        return this.counters[slot * 3];
     }
 
     public Instance getReceiver() {
@@ -80,9 +225,8 @@ public class Frame {
     public void setParam(
             Instance value) {
 
-        String paramName = this.invokedMethod
-                .getParamName(this.nextParamIndex++);
-        this.varNameToValueMap.put(paramName, value);
+        // parameters occupy the first slots, in declaration order
+        this.locals[this.nextParamIndex++] = value;
     }
 
     public Instance getReturnValue() {
@@ -90,26 +234,34 @@ public class Frame {
         return this.returnValue;
     }
 
-    public Instance getVar(
-            NId id) {
+    /**
+     * Records that a return statement completed the invoked method. Statement
+     * sequences and loops check this flag and stop executing.
+     */
+    public void setReturned() {
 
-        String name = id.getText();
+        this.returned = true;
+    }
 
-        if (!this.varNameToValueMap.containsKey(name)) {
-            throw new InterpreterException("unknown variable " + name, id);
-        }
+    public boolean hasReturned() {
+
+        return this.returned;
+    }
+
+    public Instance getVar(
+            int slot) {
 
-        return this.varNameToValueMap.get(name);
+        return this.locals[slot];
     }
 
-    public Instance getParameterValueWithoutId(
-            String name) {
+    public Instance getParam(
+            int index) {
 
-        if (!this.varNameToValueMap.containsKey(name)) {
+        if (index >= this.nextParamIndex) {
             throw new RuntimeException("parameter should have been set");
         }
 
-        return this.varNameToValueMap.get(name);
+        return this.locals[index];
     }
 
     public Token getCurrentLocation() {
@@ -0,0 +1,84 @@
+/* This file is part of Mino.
+ *
+ * See the NOTICE file distributed with this work for copyright information.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package mino.structure;
+
+import java.util.*;
+
+/**
+ * Frames of the methods being executed, reused from one invocation to the
+ * next. Invocations complete in last-in first-out order, so the frame of a
+ * method is free again as soon as the method returns.
+ */
+public class FrameStack {
+
+    private Frame[] frames = new Frame[64];
+
+    private int depth;
+
+    public Frame push(
+            Frame previousFrame,
+            Instance receiver,
+            MethodInfo invokedMethod) {
+
+        if (this.depth == this.frames.length) {
+            this.frames = Arrays.copyOf(this.frames, this.depth * 2);
+        }
+
+        Frame frame = this.frames[this.depth];
+        if (frame == null) {
+            frame = new Frame(previousFrame, receiver, invokedMethod);
+            this.frames[this.depth] = frame;
+        }
+        else {
+            frame.reuse(previousFrame, receiver, invokedMethod);
+        }
+
+        this.depth++;
+        return frame;
+    }
+
+    public void pop(
+            Frame frame) {
+
+        if (this.depth == 0 || this.frames[this.depth - 1] != frame) {
+            throw new RuntimeException("frame released out of order");
+        }
+
+        this.depth--;
+        frame.release();
+    }
+
+    /**
+     * Replaces the frame of a caller by the frame of the call it made in
+     * tail position, which must be the frame just above it.
+     */
+    public void replace(
+            Frame callerFrame,
+            Frame calleeFrame) {
+
+        if (this.depth < 2 || this.frames[this.depth - 1] != calleeFrame
+                || this.frames[this.depth - 2] != callerFrame) {
+            throw new RuntimeException("frame replaced out of order");
+        }
+
+        calleeFrame.replace(callerFrame);
+        this.frames[this.depth - 2] = calleeFrame;
+        this.frames[this.depth - 1] = callerFrame;
+        pop(callerFrame);
+    }
+}
@@ -0,0 +1,188 @@
+/* This file is part of Mino.
+ *
+ * See the NOTICE file distributed with this work for copyright information.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package mino.structure;
+
+import mino.language_mino.*;
+
+/**
+ * Polymorphic inline cache of a call site. The cache remembers the method
+ * found for each receiver class seen at the site, up to a small number of
+ * classes. A site that sees more classes becomes megamorphic, and indexes
+ * the virtual table of the receiver class on every call from then on. A
+ * site bound by the class hierarchy analysis returns its single
+ * implementation for any receiver of the analyzed type.
+ */
+public class InlineCache {
+
+    private static final int POLYMORPHIC_LIMIT = 4;
+
+    private final Token site;
+
+    private final int slot;
+
+    private final ClassInfo[] classInfos = new ClassInfo[POLYMORPHIC_LIMIT];
+
+    private final MethodInfo[] methodInfos = new MethodInfo[POLYMORPHIC_LIMIT];
+
+    private int size;
+
+    private boolean megamorphic;
+
+    private ClassInfo boundReceiverType;
+
+    private MethodInfo boundMethod;
+
+    private boolean tailCall;
+
+    private long hitCount;
+
+    private long missCount;
+
+    public InlineCache(
+            Token site,
+            int slot) {
+
+        this.site = site;
+        this.slot = slot;
+    }
+
+    /**
+     * Binds the site to the implementation of the called method in a
+     * receiver type that has a single implementation of it. Receivers of
+     * another type, which the type checker does not rule out, such as the
+     * result of Object.to_s(), still go through the cache.
+     */
+    public void bind(
+            ClassInfo receiverType) {
+
+        this.boundReceiverType = receiverType;
+        this.boundMethod = receiverType.getMethodTable().getMethodInfo(
+                this.slot, this.site);
+    }
+
+    /**
+     * Records that the call of the site is in tail position.
+     */
+    public void setTailCall() {
+
+        this.tailCall = true;
+    }
+
+    public boolean isTailCall() {
+
+        return this.tailCall;
+    }
+
+    /**
+     * Returns the method the site is bound to, or null when the site is not
+     * bound.
+     */
+    public MethodInfo getBoundMethodOrNull() {
+
+        return this.boundMethod;
+    }
+
+    /**
+     * Returns whether a receiver class gets the method the site is bound
+     * to, and counts a hit if so. Sites that invoke the bound method
+     * directly use it as their guard.
+     */
+    public boolean isBound(
+            ClassInfo classInfo) {
+
+        if (this.boundMethod != null && classInfo.isa(this.boundReceiverType)) {
+            this.hitCount++;
+            return true;
+        }
+
+        return false;
+    }
+
+    public MethodInfo getMethodInfo(
+            ClassInfo classInfo) {
+
+        if (isBound(classInfo)) {
+            return this.boundMethod;
+        }
+
+        for (int i = 0; i < this.size; i++) {
+            if (this.classInfos[i] == classInfo) {
+                this.hitCount++;
+                return this.methodInfos[i];
+            }
+        }
+
+        this.missCount++;
+        MethodInfo methodInfo = classInfo.getMethodTable().getMethodInfo(
+                this.slot, this.site);
+
+        if (this.megamorphic) {
+            return methodInfo;
+        }
+
+        if (this.size < POLYMORPHIC_LIMIT) {
+            this.classInfos[this.size] = classInfo;
+            this.methodInfos[this.size] = methodInfo;
+            this.size++;
+        }
+        else {
+            this.megamorphic = true;
+            for (int i = 0; i < this.size; i++) {
+                this.classInfos[i] = null;
+                this.methodInfos[i] = null;
+            }
+            this.size = 0;
+        }
+
+        return methodInfo;
+    }
+
+    public Token getSite() {
+
+        return this.site;
+    }
+
+    public String getState() {
+
+        if (this.boundMethod != null) {
+            return "bound";
+        }
+        else if (this.megamorphic) {
+            return "megamorphic";
+        }
+
+        switch (this.size) {
+        case 0:
+            return "uninitialized";
+        case 1:
+            return "monomorphic";
+        default:
+            return "polymorphic";
+        }
+    }
+
+    public long getHitCount() {
+
+        return this.hitCount;
+    }
+
+    public long getMissCount() {
+
+        return this.missCount;
+    }
+}
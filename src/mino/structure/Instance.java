@@ -17,37 +17,65 @@
 
 package mino.structure;
 
-import java.util.*;
-
-import mino.exception.*;
-import mino.language_mino.*;
-
 public class Instance {
 
     private final ClassInfo classInfo;
 
-    private final Map<String, Instance> fieldNameToValueMap = new LinkedHashMap<String, Instance>();
+    private final Instance[] fields;
 
     Instance(
             ClassInfo classInfo) {
 
         this.classInfo = classInfo;
-        for (FieldInfo fieldInfo : classInfo.getFieldTable().getFields()) {
-            this.fieldNameToValueMap.put(fieldInfo.getName(), null);
-        }
+        this.fields = new Instance[classInfo.getFieldTable()
+                .getFieldCount()];
     }
 
     public void setField(
-            NFieldName fieldName,
+            int offset,
             Instance value) {
 
-        String name = fieldName.getText();
-        if (!this.fieldNameToValueMap.containsKey(name)) {
-            throw new InterpreterException("class " + this.classInfo.getName()
-                    + " has no " + name + " field", fieldName);
+        this.fields[offset] = value;
+    }
+
+    /**
+     * Returns whether two values are the same for the is operator. Built-in
+     * values are compared by value, since equal values are not necessarily
+     * shared instances; other instances are compared by identity.
+     */
+    public static boolean same(
+            Instance left,
+            Instance right) {
+
+        if (left == right) {
+            return true;
+        }
+        else if (left == null || right == null) {
+            return false;
+        }
+
+        return left.hasSameValue(right);
+    }
+
+    protected boolean hasSameValue(
+            Instance other) {
+
+        return false;
+    }
+
+    /**
+     * Returns the key of the instance in the caches of pure methods: its
+     * value for a built-in value, the instance itself when it has no field,
+     * and null otherwise, as the fields of an instance may change between
+     * two calls.
+     */
+    public Object getMemoKey() {
+
+        if (this.fields.length == 0) {
+            return this;
         }
 
-        this.fieldNameToValueMap.put(name, value);
+        return null;
     }
 
     public boolean isa(
@@ -62,14 +90,8 @@ public class Instance {
     }
 
     public Instance getField(
-            NFieldName fieldName) {
-
-        String name = fieldName.getText();
-        if (!this.fieldNameToValueMap.containsKey(name)) {
-            throw new InterpreterException("class " + this.classInfo.getName()
-                    + " has no " + name + " field", fieldName);
-        }
+            int offset) {
 
-        return this.fieldNameToValueMap.get(name);
+        return this.fields[offset];
     }
 }
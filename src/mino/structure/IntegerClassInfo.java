@@ -18,20 +18,27 @@
 package mino.structure;
 
 import java.math.*;
-import java.util.*;
 
 import mino.language_mino.*;
 
 public class IntegerClassInfo
         extends ClassInfo {
 
-    private final Map<BigInteger, Instance> valueMap = new LinkedHashMap<BigInteger, Instance>();
+    private static final int SMALL_VALUE_MIN = -128;
+
+    private static final int SMALL_VALUE_MAX = 1023;
+
+    private final Instance[] smallValues = new Instance[SMALL_VALUE_MAX
+            - SMALL_VALUE_MIN + 1];
+
+    private final InternTable<Number> internTable;
 
     IntegerClassInfo(
             ClassTable classTable,
             NClassdef definition) {
 
         super(classTable, definition);
+        this.internTable = classTable.newInternTable("Integer");
     }
 
     @Override
@@ -40,16 +47,145 @@ public class IntegerClassInfo
         throw new RuntimeException("invalid instance creation");
     }
 
+    /**
+     * Returns an instance of a computed value. Small values are shared
+     * through an array; other values are allocated, as the is operator
+     * compares Integers by value and sharing them would buy nothing.
+     */
+    public Instance newInteger(
+            long value) {
+
+        if (value >= SMALL_VALUE_MIN && value <= SMALL_VALUE_MAX) {
+            int index = (int) value - SMALL_VALUE_MIN;
+            Instance instance = this.smallValues[index];
+            if (instance == null) {
+                instance = new IntegerInstance(this, value);
+                this.smallValues[index] = instance;
+            }
+
+            return instance;
+        }
+
+        return new IntegerInstance(this, value);
+    }
+
     public Instance newInteger(
             BigInteger value) {
 
-        Instance instance = this.valueMap.get(value);
+        if (value.bitLength() < Long.SIZE) {
+            return newInteger(value.longValue());
+        }
+
+        return new IntegerInstance(this, value);
+    }
+
+    /**
+     * Returns the instance of a literal, shared according to the interning
+     * policy.
+     */
+    public Instance internInteger(
+            BigInteger value) {
+
+        Number key = value;
+        if (value.bitLength() < Long.SIZE) {
+            if (value.longValue() >= SMALL_VALUE_MIN
+                    && value.longValue() <= SMALL_VALUE_MAX) {
+                this.internTable.countHit();
+                return newInteger(value.longValue());
+            }
+
+            // Long and BigInteger keys never collide, as values are
+            // normalized
+            key = value.longValue();
+        }
+
+        Instance instance = this.internTable.get(key);
 
         if (instance == null) {
-            instance = new IntegerInstance(this, value);
-            this.valueMap.put(value, instance);
+            instance = newInteger(value);
+            this.internTable.put(key, instance);
         }
 
         return instance;
     }
+
+    /**
+     * Applies an arithmetic operator to two Integers. Returns null for a
+     * division by zero or a non-positive modulus. Long operands are computed
+     * as longs; the computation moves to BigInteger only when the result
+     * overflows.
+     */
+    public Instance arithmetic(
+            char operator,
+            IntegerInstance left,
+            IntegerInstance right) {
+
+        if (left.isLong() && right.isLong()) {
+            long leftValue = left.getLongValue();
+            long rightValue = right.getLongValue();
+            switch (operator) {
+            case '+': {
+                long result = leftValue + rightValue;
+                // overflow iff both operands differ in sign from the result
+                if (((leftValue ^ result) & (rightValue ^ result)) >= 0) {
+                    return newInteger(result);
+                }
+                break;
+            }
+            case '-': {
+                long result = leftValue - rightValue;
+                if (((leftValue ^ rightValue) & (leftValue ^ result)) >= 0) {
+                    return newInteger(result);
+                }
+                break;
+            }
+            case '*': {
+                long result = leftValue * rightValue;
+                if (Math.multiplyHigh(leftValue, rightValue) == result >> 63) {
+                    return newInteger(result);
+                }
+                break;
+            }
+            case '/':
+                if (rightValue == 0) {
+                    return null;
+                }
+                if (leftValue != Long.MIN_VALUE || rightValue != -1) {
+                    return newInteger(leftValue
+                            / rightValue);
+                }
+                break;
+            default:
+                if (rightValue <= 0) {
+                    return null;
+                }
+                return newInteger(Math.floorMod(
+                        leftValue, rightValue));
+            }
+        }
+
+        BigInteger leftValue = left.getValue();
+        BigInteger rightValue = right.getValue();
+        switch (operator) {
+        case '+':
+            return newInteger(leftValue.add(rightValue));
+        case '-':
+            return newInteger(leftValue
+                    .subtract(rightValue));
+        case '*':
+            return newInteger(leftValue
+                    .multiply(rightValue));
+        case '/':
+            if (rightValue.signum() == 0) {
+                return null;
+            }
+            return newInteger(leftValue
+                    .divide(rightValue));
+        default:
+            if (rightValue.signum() <= 0) {
+                return null;
+            }
+            return newInteger(leftValue.mod(rightValue));
+        }
+    }
 }
@@ -19,21 +19,126 @@ package mino.structure;
 
 import java.math.*;
 
+/**
+ * Integer value. Values in the long range are held in a long; only values
+ * outside of it are held in a BigInteger. Arithmetic should use the long
+ * value whenever isLong() holds.
+ */
 public class IntegerInstance
         extends Instance {
 
-    private final BigInteger value;
+    private final long longValue;
+
+    private final BigInteger bigValue;
+
+    public IntegerInstance(
+            ClassInfo classInfo,
+            long value) {
+
+        super(classInfo);
+        this.longValue = value;
+        this.bigValue = null;
+    }
 
     public IntegerInstance(
             ClassInfo classInfo,
             BigInteger value) {
 
         super(classInfo);
-        this.value = value;
+        if (value.bitLength() < Long.SIZE) {
+            this.longValue = value.longValue();
+            this.bigValue = null;
+        }
+        else {
+            this.longValue = 0;
+            this.bigValue = value;
+        }
+    }
+
+    public boolean isLong() {
+
+        return this.bigValue == null;
+    }
+
+    /**
+     * Returns the value as a long. Only meaningful when isLong() holds.
+     */
+    public long getLongValue() {
+
+        return this.longValue;
     }
 
     public BigInteger getValue() {
 
-        return this.value;
+        if (this.bigValue == null) {
+            return BigInteger.valueOf(this.longValue);
+        }
+
+        return this.bigValue;
+    }
+
+    public int signum() {
+
+        if (this.bigValue == null) {
+            return Long.signum(this.longValue);
+        }
+
+        return this.bigValue.signum();
+    }
+
+    public int compareTo(
+            IntegerInstance other) {
+
+        if (this.bigValue == null && other.bigValue == null) {
+            return Long.compare(this.longValue, other.longValue);
+        }
+
+        return getValue().compareTo(other.getValue());
+    }
+
+    public float floatValue() {
+
+        if (this.bigValue == null) {
+            return this.longValue;
+        }
+
+        return this.bigValue.floatValue();
+    }
+
+    @Override
+    protected boolean hasSameValue(
+            Instance other) {
+
+        if (!(other instanceof IntegerInstance)) {
+            return false;
+        }
+
+        IntegerInstance otherInteger = (IntegerInstance) other;
+        if (this.bigValue == null) {
+            return otherInteger.bigValue == null
+                    && this.longValue == otherInteger.longValue;
+        }
+
+        return this.bigValue.equals(otherInteger.bigValue);
+    }
+
+    @Override
+    public Object getMemoKey() {
+
+        if (this.bigValue == null) {
+            return this.longValue;
+        }
+
+        return this.bigValue;
+    }
+
+    @Override
+    public String toString() {
+
+        if (this.bigValue == null) {
+            return Long.toString(this.longValue);
+        }
+
+        return this.bigValue.toString();
     }
 }
@@ -0,0 +1,215 @@
+/* This file is part of Mino.
+ *
+ * See the NOTICE file distributed with this work for copyright information.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package mino.structure;
+
+import java.lang.ref.*;
+import java.util.*;
+
+/**
+ * Table of the shared instances of the values of a built-in class. The
+ * policy decides how many instances are kept: all of them, only those still
+ * referenced by the program, the most recently used ones, or none. The is
+ * operator compares built-in values by value, so a value that is not shared
+ * behaves the same as one that is.
+ */
+public class InternTable<K> {
+
+    public static enum Policy {
+        ALL,
+        WEAK,
+        LRU,
+        SMALL;
+    }
+
+    private final String name;
+
+    private final Policy policy;
+
+    private final int maximumSize;
+
+    private final Map<K, Instance> instanceMap;
+
+    private final Map<K, InstanceReference<K>> referenceMap;
+
+    private final ReferenceQueue<Instance> referenceQueue;
+
+    private long hitCount;
+
+    private long missCount;
+
+    InternTable(
+            String name,
+            Policy policy,
+            final int maximumSize) {
+
+        this.name = name;
+        this.policy = policy;
+        this.maximumSize = maximumSize;
+
+        switch (policy) {
+        case ALL:
+            this.instanceMap = new HashMap<K, Instance>();
+            this.referenceMap = null;
+            this.referenceQueue = null;
+            break;
+        case WEAK:
+            this.instanceMap = null;
+            this.referenceMap = new HashMap<K, InstanceReference<K>>();
+            this.referenceQueue = new ReferenceQueue<Instance>();
+            break;
+        case LRU:
+            this.instanceMap = new LinkedHashMap<K, Instance>(16, 0.75f, true) {
+
+                @Override
+                protected boolean removeEldestEntry(
+                        Map.Entry<K, Instance> eldest) {
+
+                    return size() > maximumSize;
+                }
+            };
+            this.referenceMap = null;
+            this.referenceQueue = null;
+            break;
+        default:
+            this.instanceMap = null;
+            this.referenceMap = null;
+            this.referenceQueue = null;
+            break;
+        }
+    }
+
+    /**
+     * Returns the shared instance of a value, or null when there is none.
+     */
+    public Instance get(
+            K value) {
+
+        Instance instance = null;
+        if (this.instanceMap != null) {
+            instance = this.instanceMap.get(value);
+        }
+        else if (this.referenceMap != null) {
+            InstanceReference<K> reference = this.referenceMap.get(value);
+            if (reference != null) {
+                instance = reference.get();
+            }
+        }
+
+        if (instance == null) {
+            this.missCount++;
+        }
+        else {
+            this.hitCount++;
+        }
+
+        return instance;
+    }
+
+    public void put(
+            K value,
+            Instance instance) {
+
+        if (this.instanceMap != null) {
+            this.instanceMap.put(value, instance);
+        }
+        else if (this.referenceMap != null) {
+            expungeStaleReferences();
+            this.referenceMap.put(value, new InstanceReference<K>(value,
+                    instance, this.referenceQueue));
+        }
+    }
+
+    /**
+     * Counts a value found without looking in the table, such as a small
+     * Integer.
+     */
+    void countHit() {
+
+        this.hitCount++;
+    }
+
+    public int size() {
+
+        if (this.instanceMap != null) {
+            return this.instanceMap.size();
+        }
+        else if (this.referenceMap != null) {
+            expungeStaleReferences();
+            return this.referenceMap.size();
+        }
+
+        return 0;
+    }
+
+    public long getHitCount() {
+
+        return this.hitCount;
+    }
+
+    public long getMissCount() {
+
+        return this.missCount;
+    }
+
+    public String getStatistics() {
+
+        long lookupCount = this.hitCount + this.missCount;
+        String hitRate = lookupCount == 0 ? "-" : String.format("%.1f%%",
+                100.0 * this.hitCount / lookupCount);
+        String policyName = this.policy.name().toLowerCase();
+        if (this.policy == Policy.LRU) {
+            policyName += " " + this.maximumSize;
+        }
+
+        return this.name + " intern table (" + policyName + "): " + size()
+                + " values, " + this.hitCount + " hits, " + this.missCount
+                + " misses, " + hitRate + " hit rate";
+    }
+
+    private void expungeStaleReferences() {
+
+        Reference<? extends Instance> reference;
+        while ((reference = this.referenceQueue.poll()) != null) {
+            Object value = ((InstanceReference<?>) reference).getValue();
+            // the value may have been interned again since
+            if (this.referenceMap.get(value) == reference) {
+                this.referenceMap.remove(value);
+            }
+        }
+    }
+
+    private static class InstanceReference<K>
+            extends WeakReference<Instance> {
+
+        private final K value;
+
+        InstanceReference(
+                K value,
+                Instance instance,
+                ReferenceQueue<Instance> referenceQueue) {
+
+            super(instance, referenceQueue);
+            this.value = value;
+        }
+
+        K getValue() {
+
+            return this.value;
+        }
+    }
+}
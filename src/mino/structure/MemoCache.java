@@ -0,0 +1,197 @@
+/* This file is part of Mino.
+ *
+ * See the NOTICE file distributed with this work for copyright information.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package mino.structure;
+
+import java.util.*;
+
+/**
+ * Cache of the results of a pure method, by receiver and argument values.
+ * A call is only cached when its receiver, its arguments and its result
+ * all have a memo key: the fields of other instances may change between
+ * two calls. The policy decides which result is evicted when the cache is
+ * full: the least recently used one, or the oldest one.
+ */
+public class MemoCache {
+
+    public static enum Policy {
+        LRU,
+        SIZE,
+        NONE;
+    }
+
+    public static final int DEFAULT_SIZE = 1024;
+
+    private static final Object NULL_KEY = new Object();
+
+    private final MethodInfo methodInfo;
+
+    private final Policy policy;
+
+    private final int maximumSize;
+
+    private final Map<Key, Instance> resultMap;
+
+    private long hitCount;
+
+    private long missCount;
+
+    private long uncachedCount;
+
+    public MemoCache(
+            MethodInfo methodInfo,
+            Policy policy,
+            final int maximumSize) {
+
+        this.methodInfo = methodInfo;
+        this.policy = policy;
+        this.maximumSize = maximumSize;
+        this.resultMap = new LinkedHashMap<Key, Instance>(16, 0.75f,
+                policy == Policy.LRU) {
+
+            @Override
+            protected boolean removeEldestEntry(
+                    Map.Entry<Key, Instance> eldest) {
+
+                return size() > maximumSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the key of the call of a frame, whose parameters are set, or
+     * null when the call cannot be cached.
+     */
+    public Key getKey(
+            Frame frame) {
+
+        int paramCount = this.methodInfo.getParamCount();
+        Object[] values = new Object[paramCount + 1];
+        values[0] = frame.getReceiver().getMemoKey();
+        if (values[0] == null) {
+            this.uncachedCount++;
+            return null;
+        }
+
+        for (int i = 0; i < paramCount; i++) {
+            Instance param = frame.getParam(i);
+            values[i + 1] = param == null ? NULL_KEY : param.getMemoKey();
+            if (values[i + 1] == null) {
+                this.uncachedCount++;
+                return null;
+            }
+        }
+
+        return new Key(this, values);
+    }
+
+    private boolean contains(
+            Key key) {
+
+        if (this.resultMap.containsKey(key)) {
+            this.hitCount++;
+            return true;
+        }
+
+        this.missCount++;
+        return false;
+    }
+
+    private void put(
+            Key key,
+            Instance result) {
+
+        if (result != null && result.getMemoKey() == null) {
+            this.uncachedCount++;
+            return;
+        }
+
+        this.resultMap.put(key, result);
+    }
+
+    public String getStatistics() {
+
+        long lookupCount = this.hitCount + this.missCount;
+        String hitRate = lookupCount == 0 ? "-" : String.format("%.1f%%",
+                100.0 * this.hitCount / lookupCount);
+
+        return "memo cache of " + this.methodInfo.getClassInfo().getName()
+                + "." + this.methodInfo.getName() + "() ("
+                + this.policy.name().toLowerCase() + " " + this.maximumSize
+                + "): " + this.resultMap.size() + " results, "
+                + this.hitCount + " hits, " + this.missCount + " misses, "
+                + this.uncachedCount + " uncached, " + hitRate + " hit rate";
+    }
+
+    /**
+     * Receiver and argument values of a call of a pure method.
+     */
+    public static final class Key {
+
+        private final MemoCache memoCache;
+
+        private final Object[] values;
+
+        private final int hashCode;
+
+        private Key(
+                MemoCache memoCache,
+                Object[] values) {
+
+            this.memoCache = memoCache;
+            this.values = values;
+            this.hashCode = Arrays.hashCode(values);
+        }
+
+        /**
+         * Returns whether the result of the call is cached, counting a hit
+         * or a miss.
+         */
+        public boolean isCached() {
+
+            return this.memoCache.contains(this);
+        }
+
+        public Instance getResult() {
+
+            return this.memoCache.resultMap.get(this);
+        }
+
+        /**
+         * Caches the result of the call, unless it may change.
+         */
+        public void setResult(
+                Instance result) {
+
+            this.memoCache.put(this, result);
+        }
+
+        @Override
+        public boolean equals(
+                Object other) {
+
+            return other instanceof Key
+                    && Arrays.equals(this.values, ((Key) other).values);
+        }
+
+        @Override
+        public int hashCode() {
+
+            return this.hashCode;
+        }
+    }
+}
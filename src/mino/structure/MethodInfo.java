@@ -27,12 +27,16 @@ public abstract class MethodInfo {
 
     private final MethodTable methodTable;
 
-    private final LinkedList<VariableInfo> params = new LinkedList<>();
+    private final List<VariableInfo> params = new ArrayList<VariableInfo>();
 
-    private final LinkedList<String> paramNames = new LinkedList<String>();
+    private final List<String> paramNames = new ArrayList<String>();
 
     private final ClassInfo returnParam;
 
+    private int localCount;
+
+    private MemoCache memoCache;
+
     MethodInfo(
             MethodTable methodTable,
             LinkedList<VariableInfo> params,
@@ -53,6 +57,8 @@ public abstract class MethodInfo {
             this.paramNames.add(name);
             this.params.add(variableInfo);
         }
+
+        this.localCount = this.params.size();
     }
 
     public abstract String getName();
@@ -63,6 +69,21 @@ public abstract class MethodInfo {
         return this.paramNames.get(i);
     }
 
+    /**
+     * Returns the number of local variable slots of a frame of this method,
+     * parameters included.
+     */
+    public int getLocalCount() {
+
+        return this.localCount;
+    }
+
+    public void setLocalCount(
+            int localCount) {
+
+        this.localCount = localCount;
+    }
+
     public VariableInfo getParamInfo(
             int i){
 
@@ -77,12 +98,45 @@ public abstract class MethodInfo {
     public abstract void execute(
             InterpreterEngine interpreterEngine);
 
+    /**
+     * Returns the statements of a method defined in Mino, or null for a
+     * primitive method.
+     */
+    public NStms getBody() {
+
+        return null;
+    }
+
+    /**
+     * Returns whether the method has no effect other than computing its
+     * result: it assigns no field and only calls pure methods.
+     */
+    public boolean isPure() {
+
+        return false;
+    }
+
+    /**
+     * Returns the cache of the results of a pure method, or null when its
+     * calls are not cached.
+     */
+    public MemoCache getMemoCache() {
+
+        return this.memoCache;
+    }
+
+    public void setMemoCache(
+            MemoCache memoCache) {
+
+        this.memoCache = memoCache;
+    }
+
     public ClassInfo getClassInfo() {
 
         return this.methodTable.getClassInfo();
     }
 
-    public LinkedList<VariableInfo> getParams(){
+    public List<VariableInfo> getParams(){
 
         return this.params;
     }
@@ -28,7 +28,15 @@ public class MethodTable {
 
     private final Map<String, MethodInfo> nameToMethodInfoMap = new LinkedHashMap<String, MethodInfo>();
 
-    private final LinkedHashMap<String, MethodInfo> virtualTable = new LinkedHashMap<>();
+    /**
+     * Methods of the class and of its super classes, by name. Built on first
+     * lookup, once all the methods are defined.
+     */
+    private Map<String, MethodInfo> nameToVisibleMethodInfoMap;
+
+    private MethodInfo[] virtualTable = new MethodInfo[0];
+
+    private final List<Integer> virtualSlots = new ArrayList<Integer>();
 
     MethodTable(
             ClassInfo classInfo) {
@@ -104,18 +112,28 @@ public class MethodTable {
                 this, definition, params, returnParam, operatorToken));
     }
 
-    private MethodInfo getMethodInfoOrNull(
+    public MethodInfo getMethodInfoOrNull(
             String name) {
 
-        MethodInfo methodInfo = this.nameToMethodInfoMap.get(name);
-        ClassInfo superClassInfo = this.classInfo.getSuperClassInfoOrNull();
+        return getVisibleMethods().get(name);
+    }
+
+    private Map<String, MethodInfo> getVisibleMethods() {
 
-        if (methodInfo == null && superClassInfo != null) {
-            methodInfo = superClassInfo.getMethodTable().getMethodInfoOrNull(
-                    name);
+        if (this.nameToVisibleMethodInfoMap == null) {
+            Map<String, MethodInfo> visibleMethods = new HashMap<String, MethodInfo>();
+
+            ClassInfo superClassInfo = this.classInfo.getSuperClassInfoOrNull();
+            if (superClassInfo != null) {
+                visibleMethods.putAll(superClassInfo.getMethodTable()
+                        .getVisibleMethods());
+            }
+
+            visibleMethods.putAll(this.nameToMethodInfoMap);
+            this.nameToVisibleMethodInfoMap = visibleMethods;
         }
 
-        return methodInfo;
+        return this.nameToVisibleMethodInfoMap;
     }
 
     public MethodInfo getMethodInfo(
@@ -137,22 +155,63 @@ public class MethodTable {
         return this.classInfo;
     }
 
-    public void addVirtual(
-            MethodInfo methodInfo){
+    /**
+     * Builds the virtual table of the class from the one of its super class,
+     * which must already be linked. Overriding methods take the slot of the
+     * method they override, new methods get the slot of their name.
+     */
+    public void linkVirtualTable() {
 
-        if(this.virtualTable.size() == 0 && this.classInfo.getSuperClassInfoOrNull() != null){
-            this.setVirtualTable();
+        ClassInfo superClassInfo = this.classInfo.getSuperClassInfoOrNull();
+        if (superClassInfo != null) {
+            MethodTable superMethodTable = superClassInfo.getMethodTable();
+            this.virtualTable = superMethodTable.virtualTable.clone();
+            this.virtualSlots.addAll(superMethodTable.virtualSlots);
+        }
+
+        ClassTable classTable = this.classInfo.getClassTable();
+        for (MethodInfo methodInfo : this.nameToMethodInfoMap.values()) {
+            int slot = classTable.getMethodSlot(methodInfo.getName());
+            if (slot >= this.virtualTable.length) {
+                this.virtualTable = Arrays.copyOf(this.virtualTable, slot + 1);
+            }
+
+            if (this.virtualTable[slot] == null) {
+                this.virtualSlots.add(slot);
+            }
+            this.virtualTable[slot] = methodInfo;
         }
-        this.virtualTable.put(methodInfo.getName(), methodInfo);
     }
 
-    public LinkedHashMap<String, MethodInfo> getVirtualTable(){
+    /**
+     * Returns the method in a slot of the virtual table. The name token is
+     * only used to report a missing method.
+     */
+    public MethodInfo getMethodInfo(
+            int slot,
+            Token nameToken) {
+
+        if (slot < this.virtualTable.length) {
+            MethodInfo methodInfo = this.virtualTable[slot];
+            if (methodInfo != null) {
+                return methodInfo;
+            }
+        }
 
-        return this.virtualTable;
+        throw new InterpreterException("class " + this.classInfo.getName()
+                + " has no " + nameToken.getText() + " method", nameToken);
     }
 
-    private void setVirtualTable(){
+    /**
+     * Returns the methods of the virtual table, inherited ones first.
+     */
+    public List<MethodInfo> getVirtualMethods() {
+
+        List<MethodInfo> virtualMethods = new ArrayList<MethodInfo>();
+        for (int slot : this.virtualSlots) {
+            virtualMethods.add(this.virtualTable[slot]);
+        }
 
-        this.virtualTable.putAll(this.classInfo.getSuperClassInfoOrNull().getMethodTable().getVirtualTable());
+        return virtualMethods;
     }
 }
@@ -47,6 +47,18 @@ public class NormalMethodInfo
     public void execute(
             InterpreterEngine interpreterEngine) {
 
-        interpreterEngine.visit(this.definition.get_Stms());
+        interpreterEngine.executeBody(this.definition.get_Stms());
+    }
+
+    @Override
+    public boolean isPure() {
+
+        return this.definition.get_PureOpt() instanceof NPureOpt_One;
+    }
+
+    @Override
+    public NStms getBody() {
+
+        return this.definition.get_Stms();
     }
 }
@@ -90,6 +90,13 @@ public class PrimitiveNormalMethodInfo
         return this.definition.get_Id().getText();
     }
 
+    @Override
+    public boolean isPure() {
+
+        return this.operation == Operation.INTEGER_TO_S
+                || this.operation == Operation.FLOAT_TO_S;
+    }
+
     @Override
     public void execute(
             InterpreterEngine interpreterEngine) {
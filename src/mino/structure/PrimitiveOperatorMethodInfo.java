@@ -165,6 +165,12 @@ public class PrimitiveOperatorMethodInfo
         return this.operatorToken.getText();
     }
 
+    @Override
+    public boolean isPure() {
+
+        return true;
+    }
+
     @Override
     public void execute(
             InterpreterEngine interpreterEngine) {
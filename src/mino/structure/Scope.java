@@ -3,36 +3,51 @@ package mino.structure;
 import mino.exception.SemanticException;
 import mino.language_mino.NId;
 
-import java.lang.reflect.Method;
-import java.util.LinkedHashMap;
+import java.util.ArrayList;
+import java.util.HashMap;
 
 /**
  * Created by Lam on 30/03/2017.
+ *
+ * Variables visible in the body of a method or in the main program. Blocks
+ * are opened and closed as a stack: the variables of all the open blocks
+ * share one map, and the ones of a block are removed when it is closed, so
+ * a lookup never walks enclosing blocks.
  */
 public class Scope {
 
-    private Scope parentScope;
-
     private MethodInfo currentMethod;
 
-    private LinkedHashMap<String, VariableInfo> variables = new LinkedHashMap<>();
+    private HashMap<String, VariableInfo> variables = new HashMap<>();
 
-    public Scope(
-            Scope parent) {
-        this.parentScope = parent;
+    // visible variables in declaration order; a variable's slot is its index
+    private ArrayList<VariableInfo> declaredVariables = new ArrayList<>();
+
+    // number of visible variables when each open block was opened
+    private ArrayList<Integer> blockStarts = new ArrayList<>();
+
+    private int slotCount;
+
+    public Scope() {
     }
 
     public Scope(
-            Scope parent,
             MethodInfo currentMethod){
 
-        this.parentScope = parent;
         this.currentMethod = currentMethod;
     }
 
-    public Scope getParent() {
+    public void openBlock() {
+
+        this.blockStarts.add(this.declaredVariables.size());
+    }
+
+    public void closeBlock() {
 
-        return this.parentScope;
+        int blockStart = this.blockStarts.remove(this.blockStarts.size() - 1);
+        for (int i = this.declaredVariables.size() - 1; i >= blockStart; i--) {
+            this.variables.remove(this.declaredVariables.remove(i).getName());
+        }
     }
 
     public void addVariable(
@@ -40,52 +55,43 @@ public class Scope {
 
         String name = variableInfo.getName();
 
-        if (variableExists(name)) {
+        if (this.variables.containsKey(name)) {
             throw new SemanticException(
                     "variable " + name + " is already declared",
                     variableInfo.getLocation());
         }
 
+        // slots above the ones of enclosing blocks are free, as variables of
+        // sibling blocks are dead once their block is closed
+        variableInfo.setSlot(this.declaredVariables.size());
         this.variables.put(name, variableInfo);
+        this.declaredVariables.add(variableInfo);
+        this.slotCount = Math.max(this.slotCount,
+                this.declaredVariables.size());
     }
 
-    private boolean variableExists(
-            String name) {
-
-        if (this.variables.containsKey(name)) {
-            return true;
-        }
-
-        if (this.parentScope != null) {
-            return this.parentScope.variableExists(name);
-        }
+    /**
+     * Returns the number of slots needed by the variables of the method or
+     * main program, including the ones of all its blocks.
+     */
+    public int getSlotCount() {
 
-        return false;
+        return this.slotCount;
     }
 
     public VariableInfo getVariable(
             NId id) {
 
-        String name = id.getText();
-        if (!this.variables.containsKey(name)) {
-            if (this.parentScope != null) {
-                return this.parentScope.getVariable(id);
-            }
-            else {
-                throw new SemanticException("undefined variable " + name, id);
-            }
+        VariableInfo variableInfo = this.variables.get(id.getText());
+        if (variableInfo == null) {
+            throw new SemanticException("undefined variable " + id.getText(), id);
         }
 
-        return this.variables.get(name);
+        return variableInfo;
     }
 
     public MethodInfo getCurrentMethod(){
 
-        if(this.currentMethod == null){
-            if(this.parentScope != null){
-                return this.parentScope.getCurrentMethod();
-            }
-        }
         return this.currentMethod;
     }
 }
@@ -17,20 +17,19 @@
 
 package mino.structure;
 
-import java.util.*;
-
 import mino.language_mino.*;
 
 public class StringClassInfo
         extends ClassInfo {
 
-    private final Map<String, Instance> valueMap = new LinkedHashMap<String, Instance>();
+    private final InternTable<String> internTable;
 
     StringClassInfo(
             ClassTable classTable,
             NClassdef definition) {
 
         super(classTable, definition);
+        this.internTable = classTable.newInternTable("String");
     }
 
     @Override
@@ -42,13 +41,32 @@ public class StringClassInfo
     public Instance newString(
             String value) {
 
-        Instance instance = this.valueMap.get(value);
+        Instance instance = this.internTable.get(value);
 
         if (instance == null) {
             instance = new StringInstance(this, value);
-            this.valueMap.put(value, instance);
+            this.internTable.put(value, instance);
         }
 
         return instance;
     }
+
+    /**
+     * Returns the concatenation of a String and a piece. Unlike newString,
+     * the result is not interned, so that its value need not be flattened
+     * and hashed.
+     */
+    public Instance concat(
+            StringInstance left,
+            String right) {
+
+        return left.concat(right);
+    }
+
+    public Instance concat(
+            String left,
+            StringInstance right) {
+
+        return right.prepend(left);
+    }
 }
@@ -17,10 +17,21 @@
 
 package mino.structure;
 
+/**
+ * A String value. The result of a concatenation is kept in a StringBuilder
+ * shared along a chain of concatenations, and is only flattened into a
+ * String when the value is observed. A concatenation to the most recent
+ * value of a buffer appends in place, so building a string piece by piece
+ * takes linear time.
+ */
 public class StringInstance
         extends Instance {
 
-    private final String value;
+    private String value;
+
+    private final StringBuilder buffer;
+
+    private final int length;
 
     public StringInstance(
             ClassInfo classInfo,
@@ -28,15 +39,95 @@ public class StringInstance
 
         super(classInfo);
         this.value = value;
+        this.buffer = null;
+        this.length = value.length();
+    }
+
+    private StringInstance(
+            ClassInfo classInfo,
+            StringBuilder buffer) {
+
+        super(classInfo);
+        this.buffer = buffer;
+        this.length = buffer.length();
     }
 
     public String getValue() {
 
+        if (this.value == null) {
+            this.value = this.buffer.substring(0, this.length);
+        }
+
         return this.value;
     }
 
+    public int length() {
+
+        return this.length;
+    }
+
+    /**
+     * Returns the concatenation of this value and a piece. The buffer of
+     * this value is reused when nothing was appended to it since.
+     */
+    StringInstance concat(
+            String piece) {
+
+        StringBuilder buffer;
+        if (this.buffer != null && this.buffer.length() == this.length) {
+            buffer = this.buffer;
+        }
+        else {
+            buffer = new StringBuilder(Math.max(16,
+                    2 * (this.length + piece.length())));
+            appendTo(buffer);
+        }
+
+        buffer.append(piece);
+        return new StringInstance(getClassInfo(), buffer);
+    }
+
+    /**
+     * Returns the concatenation of a prefix and this value.
+     */
+    StringInstance prepend(
+            String prefix) {
+
+        StringBuilder buffer = new StringBuilder(Math.max(16,
+                2 * (prefix.length() + this.length)));
+        buffer.append(prefix);
+        appendTo(buffer);
+        return new StringInstance(getClassInfo(), buffer);
+    }
+
+    private void appendTo(
+            StringBuilder builder) {
+
+        if (this.value != null) {
+            builder.append(this.value);
+        }
+        else {
+            builder.append(this.buffer, 0, this.length);
+        }
+    }
+
+    @Override
+    protected boolean hasSameValue(
+            Instance other) {
+
+        return other instanceof StringInstance
+                && this.length == ((StringInstance) other).length
+                && getValue().equals(((StringInstance) other).getValue());
+    }
+
+    @Override
+    public Object getMemoKey() {
+
+        return getValue();
+    }
+
     @Override
     public String toString() {
-        return this.value;
+        return getValue();
     }
 }
@@ -0,0 +1,77 @@
+/* This file is part of Mino.
+ *
+ * See the NOTICE file distributed with this work for copyright information.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package mino.structure;
+
+import java.util.*;
+
+import mino.language_mino.*;
+
+/**
+ * Table of the values resolved for tokens, indexed by the position of each
+ * token in the source: a lookup indexes an array of lines, then an array of
+ * positions, without hashing. The engines read these values each time an
+ * expression is evaluated. Two tokens of a program never share a position.
+ */
+public class TokenTable<V> {
+
+    private Object[][] lines = new Object[16][];
+
+    public void put(
+            Token token,
+            V value) {
+
+        int line = token.getLine();
+        int pos = token.getPos();
+        if (line >= this.lines.length) {
+            this.lines = Arrays.copyOf(this.lines, Math.max(line + 1,
+                    this.lines.length * 2));
+        }
+
+        Object[] positions = this.lines[line];
+        if (positions == null) {
+            positions = new Object[pos + 1];
+            this.lines[line] = positions;
+        }
+        else if (pos >= positions.length) {
+            positions = Arrays.copyOf(positions, Math.max(pos + 1,
+                    positions.length * 2));
+            this.lines[line] = positions;
+        }
+
+        positions[pos] = value;
+    }
+
+    /**
+     * Returns the value of a token, or null when it has none.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(
+            Token token) {
+
+        int line = token.getLine();
+        if (line < this.lines.length) {
+            Object[] positions = this.lines[line];
+            int pos = token.getPos();
+            if (positions != null && pos < positions.length) {
+                return (V) positions[pos];
+            }
+        }
+
+        return null;
+    }
+}
@@ -14,6 +14,10 @@ public class VariableInfo {
 
     private Token location;
 
+    private int slot;
+
+    private boolean counter;
+
     public VariableInfo(
             String name,
             ClassInfo explicitType,
@@ -29,6 +33,31 @@ public class VariableInfo {
         return name;
     }
 
+    public int getSlot() {
+
+        return slot;
+    }
+
+    void setSlot(
+            int slot) {
+
+        this.slot = slot;
+    }
+
+    /**
+     * Returns whether the variable is the counter of a for loop, whose value
+     * is kept as a long in the frame and cannot be assigned.
+     */
+    public boolean isCounter() {
+
+        return counter;
+    }
+
+    public void setCounter() {
+
+        this.counter = true;
+    }
+
     public ClassInfo getExplicitType() {
 
         return explicitType;
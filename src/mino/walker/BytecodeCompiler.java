@@ -0,0 +1,483 @@
+/* This file is part of Mino.
+ *
+ * See the NOTICE file distributed with this work for copyright information.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package mino.walker;
+
+import java.util.*;
+
+import mino.bytecode.*;
+import mino.language_mino.*;
+import mino.structure.*;
+
+/**
+ * Compiles the statements of a method body, or of the main program, into
+ * a Code for the VirtualMachine. Expressions leave their value on the stack.
+ */
+public class BytecodeCompiler
+        extends Walker {
+
+    private final ClassTable classTable;
+
+    private final BooleanClassInfo booleanClassInfo;
+
+    private final CodeBuilder codeBuilder;
+
+    private List<NExp> expList;
+
+    public static Code compile(
+            String name,
+            NStms body,
+            ClassTable classTable) {
+
+        BytecodeCompiler compiler = new BytecodeCompiler(name, classTable);
+        compiler.visit(body);
+        compiler.codeBuilder.emit(Opcode.RETURN);
+        return compiler.codeBuilder.toCode();
+    }
+
+    private BytecodeCompiler(
+            String name,
+            ClassTable classTable) {
+
+        this.classTable = classTable;
+        this.booleanClassInfo = (BooleanClassInfo) classTable
+                .getBooleanClassInfoOrNull();
+        this.codeBuilder = new CodeBuilder(name);
+    }
+
+    public void visit(
+            Node node) {
+
+        node.apply(this);
+    }
+
+    private List<NExp> getExpList(
+            NExpListOpt node) {
+
+        this.expList = new LinkedList<NExp>();
+        visit(node);
+        List<NExp> expList = this.expList;
+        this.expList = null;
+        return expList;
+    }
+
+    private void emit(
+            int opcode,
+            Object constant) {
+
+        this.codeBuilder.emit(opcode, this.codeBuilder.addConstant(constant));
+    }
+
+    /**
+     * Compiles an operator expression folded by the ConstantFolder, given by
+     * its operator token, and returns whether the expression was folded.
+     */
+    private boolean compileFolding(
+            Token operatorToken) {
+
+        Folding folding = this.classTable.getFolding(operatorToken);
+        if (folding == null) {
+            return false;
+        }
+
+        if (folding.isConstant()) {
+            emit(Opcode.CONST, folding.getValue());
+        }
+        else {
+            visit(folding.getExpression());
+            this.codeBuilder.emit(Opcode.SIMPLIFY, this.codeBuilder
+                    .addConstant(folding));
+        }
+
+        return true;
+    }
+
+    private void emitBinary(
+            Node left,
+            Node right,
+            int opcode,
+            Token operatorToken) {
+
+        visit(left);
+        visit(right);
+        emit(opcode, operatorToken);
+    }
+
+    @Override
+    public void caseStm_VarAssign(
+            NStm_VarAssign node) {
+
+        if (node.get_AssignOpt() instanceof NAssignOpt_One) {
+            visit(((NAssignOpt_One) node.get_AssignOpt()).get_Exp());
+        }
+        else {
+            emit(Opcode.CONST, null);
+        }
+
+        this.codeBuilder.emit(Opcode.STORE_VAR, this.classTable
+                .getVariableSlot(node.get_Id()));
+    }
+
+    @Override
+    public void caseStm_FieldAssign(
+            NStm_FieldAssign node) {
+
+        visit(node.get_Exp());
+        this.codeBuilder.emit(Opcode.STORE_FIELD, this.classTable
+                .getFieldOffset(node.get_FieldName()));
+    }
+
+    @Override
+    public void caseStm_While(
+            NStm_While node) {
+
+        int start = this.codeBuilder.getOffset();
+        visit(node.get_Exp());
+        int exitJump = this.codeBuilder.emitForwardJump(Opcode.JUMP_IF_FALSE,
+                this.codeBuilder.addConstant(node.get_LPar()));
+        visit(node.get_Stms());
+        this.codeBuilder.emit(Opcode.JUMP, start);
+        this.codeBuilder.patchJump(exitJump);
+    }
+
+    @Override
+    public void caseStm_For(
+            NStm_For node) {
+
+        visit(node.get_From());
+        visit(node.get_To());
+        if (node.get_StepOpt() instanceof NStepOpt_One) {
+            visit(((NStepOpt_One) node.get_StepOpt()).get_Exp());
+        }
+        else {
+            emit(Opcode.CONST, null);
+        }
+
+        int slot = this.classTable.getVariableSlot(node.get_Id());
+        this.codeBuilder.emit(Opcode.FOR_START, slot,
+                this.codeBuilder.addConstant(node.get_LPar()));
+        int exitJump = this.codeBuilder
+                .emitForwardJump(Opcode.JUMP_IF_NOT_TRUE);
+        int start = this.codeBuilder.getOffset();
+        visit(node.get_Stms());
+        this.codeBuilder.emit(Opcode.FOR_NEXT, slot, start);
+        this.codeBuilder.patchJump(exitJump);
+    }
+
+    @Override
+    public void caseStm_If(
+            NStm_If node) {
+
+        visit(node.get_Exp());
+        int elseJump = this.codeBuilder
+                .emitForwardJump(Opcode.JUMP_IF_NOT_TRUE);
+        visit(node.get_Stms());
+
+        if (node.get_ElseOpt() instanceof NElseOpt_One) {
+            int endJump = this.codeBuilder.emitForwardJump(Opcode.JUMP);
+            this.codeBuilder.patchJump(elseJump);
+            visit(((NElseOpt_One) node.get_ElseOpt()).get_Else().get_Stms());
+            this.codeBuilder.patchJump(endJump);
+        }
+        else {
+            this.codeBuilder.patchJump(elseJump);
+        }
+    }
+
+    @Override
+    public void caseStm_Return(
+            NStm_Return node) {
+
+        if (node.get_ExpOpt() instanceof NExpOpt_One) {
+            visit(((NExpOpt_One) node.get_ExpOpt()).get_Exp());
+            this.codeBuilder.emit(Opcode.RETURN_VALUE);
+        }
+        else {
+            this.codeBuilder.emit(Opcode.RETURN);
+        }
+    }
+
+    @Override
+    public void caseStm_Call(
+            NStm_Call node) {
+
+        visit(node.get_Call());
+        this.codeBuilder.emit(Opcode.POP);
+    }
+
+    @Override
+    public void caseStm_SelfCall(
+            NStm_SelfCall node) {
+
+        visit(node.get_SelfCall());
+        this.codeBuilder.emit(Opcode.POP);
+    }
+
+    @Override
+    public void caseExp_Is(
+            NExp_Is node) {
+
+        visit(node.get_Exp());
+        visit(node.get_AddExp());
+        this.codeBuilder.emit(Opcode.IS);
+    }
+
+    @Override
+    public void caseExp_Eq(
+            NExp_Eq node) {
+
+        emitBinary(node.get_Exp(), node.get_AddExp(), Opcode.EQ, node.get_Eq());
+    }
+
+    @Override
+    public void caseExp_NotEq(
+            NExp_NotEq node) {
+
+        emitBinary(node.get_Exp(), node.get_AddExp(), Opcode.NOT_EQ,
+                node.get_NotEq());
+    }
+
+    @Override
+    public void caseExp_LowerThan(
+            NExp_LowerThan node) {
+
+        emitBinary(node.get_Exp(), node.get_AddExp(), Opcode.LT, node.get_Lt());
+    }
+
+    @Override
+    public void caseExp_LowerThanEqual(
+            NExp_LowerThanEqual node) {
+
+        emitBinary(node.get_Exp(), node.get_AddExp(), Opcode.LTE,
+                node.get_Lte());
+    }
+
+    @Override
+    public void caseExp_GreaterThan(
+            NExp_GreaterThan node) {
+
+        emitBinary(node.get_Exp(), node.get_AddExp(), Opcode.GT, node.get_Gt());
+    }
+
+    @Override
+    public void caseExp_GreaterThanEqual(
+            NExp_GreaterThanEqual node) {
+
+        emitBinary(node.get_Exp(), node.get_AddExp(), Opcode.GTE,
+                node.get_Gte());
+    }
+
+    @Override
+    public void caseExp_Isa(
+            NExp_Isa node) {
+
+        visit(node.get_Exp());
+        emit(Opcode.ISA, this.classTable.getReferencedClass(node
+                .get_ClassName()));
+    }
+
+    @Override
+    public void caseAddExp_Add(
+            NAddExp_Add node) {
+
+        if (compileFolding(node.get_Plus())) {
+            return;
+        }
+
+        emitBinary(node.get_AddExp(), node.get_MultExp(), Opcode.ADD,
+                node.get_Plus());
+    }
+
+    @Override
+    public void caseAddExp_Min(
+            NAddExp_Min node) {
+
+        if (compileFolding(node.get_Min())) {
+            return;
+        }
+
+        emitBinary(node.get_AddExp(), node.get_MultExp(), Opcode.MINUS,
+                node.get_Min());
+    }
+
+    @Override
+    public void caseMultExp_Div(
+            NMultExp_Div node) {
+
+        if (compileFolding(node.get_Div())) {
+            return;
+        }
+
+        emitBinary(node.get_MultExp(), node.get_LeftUnaryExp(), Opcode.DIV,
+                node.get_Div());
+    }
+
+    @Override
+    public void caseMultExp_Modul(
+            NMultExp_Modul node) {
+
+        if (compileFolding(node.get_Modul())) {
+            return;
+        }
+
+        emitBinary(node.get_MultExp(), node.get_LeftUnaryExp(), Opcode.MODUL,
+                node.get_Modul());
+    }
+
+    @Override
+    public void caseMultExp_Mult(
+            NMultExp_Mult node) {
+
+        if (compileFolding(node.get_Mult())) {
+            return;
+        }
+
+        emitBinary(node.get_MultExp(), node.get_LeftUnaryExp(), Opcode.MULT,
+                node.get_Mult());
+    }
+
+    @Override
+    public void caseLeftUnaryExp_Not(
+            NLeftUnaryExp_Not node) {
+
+        if (compileFolding(node.get_Not())) {
+            return;
+        }
+
+        visit(node.get_LeftUnaryExp());
+        emit(Opcode.NOT, node.get_Not());
+    }
+
+    @Override
+    public void caseTerm_New(
+            NTerm_New node) {
+
+        emit(Opcode.NEW, this.classTable.getReferencedClass(node
+                .get_ClassName()));
+    }
+
+    @Override
+    public void caseTerm_Field(
+            NTerm_Field node) {
+
+        this.codeBuilder.emit(Opcode.LOAD_FIELD, this.classTable
+                .getFieldOffset(node.get_FieldName()));
+    }
+
+    @Override
+    public void caseTerm_Var(
+            NTerm_Var node) {
+
+        int opcode = this.classTable.isCounter(node.get_Id())
+                ? Opcode.LOAD_COUNTER : Opcode.LOAD_VAR;
+        this.codeBuilder.emit(opcode, this.classTable.getVariableSlot(node
+                .get_Id()));
+    }
+
+    @Override
+    public void caseTerm_Num(
+            NTerm_Num node) {
+
+        emit(Opcode.CONST, this.classTable.getLiteralValue(node.get_Number()));
+    }
+
+    @Override
+    public void caseTerm_Null(
+            NTerm_Null node) {
+
+        emit(Opcode.CONST, null);
+    }
+
+    @Override
+    public void caseTerm_Self(
+            NTerm_Self node) {
+
+        this.codeBuilder.emit(Opcode.SELF);
+    }
+
+    @Override
+    public void caseTerm_True(
+            NTerm_True node) {
+
+        emit(Opcode.CONST, this.booleanClassInfo.getTrue());
+    }
+
+    @Override
+    public void caseTerm_False(
+            NTerm_False node) {
+
+        emit(Opcode.CONST, this.booleanClassInfo.getFalse());
+    }
+
+    @Override
+    public void caseTerm_String(
+            NTerm_String node) {
+
+        emit(Opcode.CONST, this.classTable.getLiteralValue(node.get_String()));
+    }
+
+    @Override
+    public void caseTerm_Float(
+            NTerm_Float node) {
+
+        emit(Opcode.CONST, this.classTable.getLiteralValue(node.get_Float()));
+    }
+
+    @Override
+    public void caseCall(
+            NCall node) {
+
+        List<NExp> expList = getExpList(node.get_ExpListOpt());
+
+        visit(node.get_RightUnaryExp());
+        for (NExp exp : expList) {
+            visit(exp);
+        }
+
+        this.codeBuilder.emit(Opcode.CALL,
+                this.codeBuilder.addConstant(node.get_Id()), expList.size());
+    }
+
+    @Override
+    public void caseSelfCall(
+            NSelfCall node) {
+
+        List<NExp> expList = getExpList(node.get_ExpListOpt());
+
+        for (NExp exp : expList) {
+            visit(exp);
+        }
+
+        this.codeBuilder.emit(Opcode.SELF_CALL,
+                this.codeBuilder.addConstant(node.get_Id()), expList.size());
+    }
+
+    @Override
+    public void caseExpList(
+            NExpList node) {
+
+        this.expList.add(node.get_Exp());
+        visit(node.get_AdditionalExps());
+    }
+
+    @Override
+    public void caseAdditionalExp(
+            NAdditionalExp node) {
+
+        this.expList.add(node.get_Exp());
+    }
+}
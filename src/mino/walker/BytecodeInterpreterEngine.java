@@ -0,0 +1,106 @@
+/* This file is part of Mino.
+ *
+ * See the NOTICE file distributed with this work for copyright information.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package mino.walker;
+
+import java.util.*;
+
+import mino.bytecode.*;
+import mino.language_mino.*;
+import mino.structure.*;
+
+/**
+ * Interpreter that compiles each method body to bytecode the first time it
+ * is executed, and runs it on the VirtualMachine. Calls between methods
+ * defined in Mino do not use the Java stack, so the recursion depth is only
+ * limited by the stack memory given to the virtual machine.
+ */
+public class BytecodeInterpreterEngine
+        extends InterpreterEngine {
+
+    private final Map<NStms, Code> bodyToCodeMap = new IdentityHashMap<NStms, Code>();
+
+    private final boolean disassemble;
+
+    private final long stackMemory;
+
+    private ClassTable classTable;
+
+    private VirtualMachine virtualMachine;
+
+    public BytecodeInterpreterEngine(
+            boolean disassemble,
+            long stackMemory) {
+
+        this.disassemble = disassemble;
+        this.stackMemory = stackMemory;
+    }
+
+    @Override
+    public void visit(
+            Node node,
+            ClassTable classTable) {
+
+        this.classTable = classTable;
+        this.virtualMachine = new VirtualMachine(this, classTable,
+                this.stackMemory);
+        super.visit(node, classTable);
+    }
+
+    @Override
+    public void executeBody(
+            NStms body) {
+
+        Frame frame = getCurrentFrame();
+        this.virtualMachine.run(getCode(body, frame.getInvokedMethod()),
+                frame);
+    }
+
+    /**
+     * Returns the code of a method body, or of the main program when the
+     * method is null, compiling it the first time.
+     */
+    public Code getCode(
+            NStms body,
+            MethodInfo invokedMethod) {
+
+        Code code = this.bodyToCodeMap.get(body);
+        if (code == null) {
+            code = BytecodeCompiler.compile(getBodyName(invokedMethod), body,
+                    this.classTable);
+            this.bodyToCodeMap.put(body, code);
+
+            if (this.disassemble) {
+                flushOutput();
+                System.err.print(Disassembler.disassemble(code));
+            }
+        }
+
+        return code;
+    }
+
+    private String getBodyName(
+            MethodInfo invokedMethod) {
+
+        if (invokedMethod == null) {
+            return "main program";
+        }
+
+        return invokedMethod.getClassInfo().getName() + "."
+                + invokedMethod.getName() + "()";
+    }
+}
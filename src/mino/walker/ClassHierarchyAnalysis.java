@@ -0,0 +1,115 @@
+/* This file is part of Mino.
+ *
+ * See the NOTICE file distributed with this work for copyright information.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package mino.walker;
+
+import mino.language_mino.*;
+import mino.structure.*;
+
+/**
+ * Finds the call sites whose static receiver type, as computed by the
+ * semantic analysis, has a single implementation of the called method
+ * across all its subtypes. The inline caches of these sites are bound to
+ * that implementation and skip the method lookup.
+ */
+public class ClassHierarchyAnalysis
+        extends Walker {
+
+    private final ClassTable classTable;
+
+    private ClassInfo currentClassInfo;
+
+    public static void analyze(
+            Node tree,
+            ClassTable classTable) {
+
+        new ClassHierarchyAnalysis(classTable).visit(tree);
+    }
+
+    private ClassHierarchyAnalysis(
+            ClassTable classTable) {
+
+        this.classTable = classTable;
+    }
+
+    public void visit(
+            Node node) {
+
+        node.apply(this);
+    }
+
+    @Override
+    public void inClassdef(
+            NClassdef node) {
+
+        this.currentClassInfo = this.classTable.get(node.get_ClassName());
+    }
+
+    @Override
+    public void outClassdef(
+            NClassdef node) {
+
+        this.currentClassInfo = null;
+    }
+
+    @Override
+    public void caseCall(
+            NCall node) {
+
+        visit(node.get_RightUnaryExp());
+        visit(node.get_ExpListOpt());
+        bind(node.get_Id(), this.classTable.getExpressionType(node
+                .get_RightUnaryExp()));
+    }
+
+    @Override
+    public void caseSelfCall(
+            NSelfCall node) {
+
+        visit(node.get_ExpListOpt());
+        if (this.currentClassInfo != null) {
+            bind(node.get_Id(), this.currentClassInfo);
+        }
+        else {
+            bind(node.get_Id(), this.classTable.getObjectClassInfoOrNull());
+        }
+    }
+
+    private void bind(
+            NId id,
+            ClassInfo receiverType) {
+
+        if (receiverType == null) {
+            return;
+        }
+
+        MethodInfo implementation = null;
+        for (ClassInfo subType : receiverType.getSubTypes()) {
+            MethodInfo methodInfo = subType.getMethodTable().getMethodInfo(id);
+            if (implementation == null) {
+                implementation = methodInfo;
+            }
+            else if (methodInfo != implementation) {
+                return;
+            }
+        }
+
+        if (implementation != null) {
+            this.classTable.setDevirtualizedSite(id, receiverType);
+        }
+    }
+}
@@ -0,0 +1,372 @@
+/* This file is part of Mino.
+ *
+ * See the NOTICE file distributed with this work for copyright information.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package mino.walker;
+
+import java.util.*;
+
+import mino.language_mino.*;
+import mino.structure.*;
+
+/**
+ * Folds operator expressions over constant operands, and simplifies
+ * {@code !!x} and {@code x * 1}, using the static types computed by the
+ * semantic analysis. A folding is recorded in the ClassTable only when the
+ * operator is a primitive method and the result is the one the primitive
+ * would compute; anything that could fail at run time is left as is.
+ */
+public class ConstantFolder
+        extends Walker {
+
+    private final ClassTable classTable;
+
+    private final Map<Node, Instance> expressionToConstantMap = new IdentityHashMap<Node, Instance>();
+
+    private BooleanClassInfo booleanClassInfo;
+
+    private IntegerClassInfo integerClassInfo;
+
+    private StringClassInfo stringClassInfo;
+
+    private FloatClassInfo floatClassInfo;
+
+    public static void fold(
+            Node tree,
+            ClassTable classTable) {
+
+        new ConstantFolder(classTable).visit(tree);
+    }
+
+    private ConstantFolder(
+            ClassTable classTable) {
+
+        this.classTable = classTable;
+    }
+
+    public void visit(
+            Node node) {
+
+        node.apply(this);
+    }
+
+    /**
+     * Visits an expression, and returns its constant value, or null when it
+     * is not constant.
+     */
+    private Instance getConstant(
+            Node node) {
+
+        visit(node);
+        return this.expressionToConstantMap.get(node);
+    }
+
+    private void setConstant(
+            Node node,
+            Instance value) {
+
+        if (value != null) {
+            this.expressionToConstantMap.put(node, value);
+        }
+    }
+
+    @Override
+    public void caseFile(
+            NFile node) {
+
+        this.booleanClassInfo = (BooleanClassInfo) this.classTable
+                .getBooleanClassInfoOrNull();
+        this.integerClassInfo = (IntegerClassInfo) this.classTable
+                .getIntegerClassInfoOrNull();
+        this.stringClassInfo = (StringClassInfo) this.classTable
+                .getStringClassInfoOrNull();
+        this.floatClassInfo = (FloatClassInfo) this.classTable
+                .getFloatClassInfoOrNull();
+
+        visit(node.get_Classdefs());
+        visit(node.get_Stms());
+    }
+
+    @Override
+    public void caseExp_Simple(
+            NExp_Simple node) {
+
+        setConstant(node, getConstant(node.get_AddExp()));
+    }
+
+    @Override
+    public void caseAddExp_Add(
+            NAddExp_Add node) {
+
+        foldOperator(node, getConstant(node.get_AddExp()),
+                getConstant(node.get_MultExp()), node.get_Plus());
+    }
+
+    @Override
+    public void caseAddExp_Min(
+            NAddExp_Min node) {
+
+        foldOperator(node, getConstant(node.get_AddExp()),
+                getConstant(node.get_MultExp()), node.get_Min());
+    }
+
+    @Override
+    public void caseAddExp_Simple(
+            NAddExp_Simple node) {
+
+        setConstant(node, getConstant(node.get_MultExp()));
+    }
+
+    @Override
+    public void caseMultExp_Div(
+            NMultExp_Div node) {
+
+        foldOperator(node, getConstant(node.get_MultExp()),
+                getConstant(node.get_LeftUnaryExp()), node.get_Div());
+    }
+
+    @Override
+    public void caseMultExp_Modul(
+            NMultExp_Modul node) {
+
+        foldOperator(node, getConstant(node.get_MultExp()),
+                getConstant(node.get_LeftUnaryExp()), node.get_Modul());
+    }
+
+    @Override
+    public void caseMultExp_Mult(
+            NMultExp_Mult node) {
+
+        Instance left = getConstant(node.get_MultExp());
+        Instance right = getConstant(node.get_LeftUnaryExp());
+        if (foldOperator(node, left, right, node.get_Mult())) {
+            return;
+        }
+
+        // x * 1 is x, as long as x is a number that * leaves unchanged
+        ClassInfo leftType = this.classTable.getExpressionType(node
+                .get_MultExp());
+        if ((leftType == this.integerClassInfo
+                || leftType == this.floatClassInfo)
+                && right != null
+                && right.getClassInfo() == this.integerClassInfo
+                && ((IntegerInstance) right).isLong()
+                && ((IntegerInstance) right).getLongValue() == 1
+                && isPrimitive(leftType, node.get_Mult())) {
+            this.classTable.setFolding(node.get_Mult(), Folding
+                    .simplification(node.get_MultExp(), node.get_Mult(),
+                            "left argument of * is null", leftType, right));
+        }
+    }
+
+    @Override
+    public void caseMultExp_Simple(
+            NMultExp_Simple node) {
+
+        setConstant(node, getConstant(node.get_LeftUnaryExp()));
+    }
+
+    @Override
+    public void caseLeftUnaryExp_Not(
+            NLeftUnaryExp_Not node) {
+
+        Instance value = getConstant(node.get_LeftUnaryExp());
+        if (value != null) {
+            if (value.getClassInfo() == this.booleanClassInfo) {
+                Instance result = this.booleanClassInfo.getTrue();
+                if (value == result) {
+                    result = this.booleanClassInfo.getFalse();
+                }
+
+                setConstant(node, result);
+                this.classTable.setFolding(node.get_Not(), Folding
+                        .constant(result));
+            }
+            return;
+        }
+
+        // !!x is x for a Boolean x; a null x is still reported by the inner !
+        if (node.get_LeftUnaryExp() instanceof NLeftUnaryExp_Not) {
+            NLeftUnaryExp_Not inner = (NLeftUnaryExp_Not) node
+                    .get_LeftUnaryExp();
+            ClassInfo type = this.classTable.getExpressionType(inner
+                    .get_LeftUnaryExp());
+            if (type == this.booleanClassInfo) {
+                this.classTable.setFolding(node.get_Not(), Folding
+                        .simplification(inner.get_LeftUnaryExp(), inner
+                                .get_Not(), "expression is null",
+                                this.booleanClassInfo, null));
+            }
+        }
+    }
+
+    @Override
+    public void caseLeftUnaryExp_Simple(
+            NLeftUnaryExp_Simple node) {
+
+        setConstant(node, getConstant(node.get_RightUnaryExp()));
+    }
+
+    @Override
+    public void caseRightUnaryExp_Simple(
+            NRightUnaryExp_Simple node) {
+
+        setConstant(node, getConstant(node.get_Term()));
+    }
+
+    @Override
+    public void caseTerm_Num(
+            NTerm_Num node) {
+
+        setConstant(node, this.classTable.getLiteralValue(node.get_Number()));
+    }
+
+    @Override
+    public void caseTerm_String(
+            NTerm_String node) {
+
+        setConstant(node, this.classTable.getLiteralValue(node.get_String()));
+    }
+
+    @Override
+    public void caseTerm_Float(
+            NTerm_Float node) {
+
+        setConstant(node, this.classTable.getLiteralValue(node.get_Float()));
+    }
+
+    @Override
+    public void caseTerm_True(
+            NTerm_True node) {
+
+        setConstant(node, this.booleanClassInfo.getTrue());
+    }
+
+    @Override
+    public void caseTerm_False(
+            NTerm_False node) {
+
+        setConstant(node, this.booleanClassInfo.getFalse());
+    }
+
+    @Override
+    public void caseTerm_Par(
+            NTerm_Par node) {
+
+        setConstant(node, getConstant(node.get_Exp()));
+    }
+
+    private boolean isPrimitive(
+            ClassInfo classInfo,
+            Token operatorToken) {
+
+        return classInfo.getMethodTable().getMethodInfo(operatorToken)
+                instanceof PrimitiveOperatorMethodInfo;
+    }
+
+    /**
+     * Folds an operator over two constants, and returns whether it was
+     * folded.
+     */
+    private boolean foldOperator(
+            Node node,
+            Instance left,
+            Instance right,
+            Token operatorToken) {
+
+        if (left == null || right == null
+                || !isPrimitive(left.getClassInfo(), operatorToken)) {
+            return false;
+        }
+
+        Instance value = evaluate(operatorToken.getText().charAt(0), left,
+                right);
+        if (value == null) {
+            return false;
+        }
+
+        setConstant(node, value);
+        this.classTable.setFolding(operatorToken, Folding.constant(value));
+        return true;
+    }
+
+    /**
+     * Computes a primitive operator the way the primitive method does.
+     * Returns null when the primitive would fail, such as on a division by
+     * zero, so that the error is still raised at run time.
+     */
+    private Instance evaluate(
+            char operator,
+            Instance left,
+            Instance right) {
+
+        ClassInfo leftClassInfo = left.getClassInfo();
+        ClassInfo rightClassInfo = right.getClassInfo();
+        if (leftClassInfo == this.stringClassInfo) {
+            if (operator != '+') {
+                return null;
+            }
+            return this.stringClassInfo.newString(((StringInstance) left)
+                    .getValue().concat(toText(right)));
+        }
+        else if (rightClassInfo == this.stringClassInfo) {
+            if (operator != '+') {
+                return null;
+            }
+            else if (leftClassInfo == this.integerClassInfo) {
+                return this.stringClassInfo.newString(left.toString().concat(
+                        ((StringInstance) right).getValue()));
+            }
+            else if (leftClassInfo == this.floatClassInfo) {
+                return this.stringClassInfo.newString(((FloatInstance) left)
+                        .getValue().toString().concat(
+                                ((StringInstance) right).getValue()));
+            }
+        }
+        else if (leftClassInfo == this.integerClassInfo
+                && rightClassInfo == this.integerClassInfo) {
+            return this.integerClassInfo.arithmetic(operator,
+                    (IntegerInstance) left, (IntegerInstance) right);
+        }
+        else if (leftClassInfo == this.floatClassInfo) {
+            if (rightClassInfo == this.floatClassInfo) {
+                return this.floatClassInfo.arithmetic(operator,
+                        ((FloatInstance) left).getValue(),
+                        ((FloatInstance) right).getValue());
+            }
+            else if (rightClassInfo == this.integerClassInfo) {
+                return this.floatClassInfo.arithmetic(operator,
+                        ((FloatInstance) left).getValue(),
+                        ((IntegerInstance) right).floatValue());
+            }
+        }
+
+        return null;
+    }
+
+    private String toText(
+            Instance value) {
+
+        if (value instanceof BooleanInstance) {
+            return ((BooleanInstance) value).getValue().toString();
+        }
+        else if (value instanceof FloatInstance) {
+            return ((FloatInstance) value).getValue().toString();
+        }
+
+        return value.toString();
+    }
+}
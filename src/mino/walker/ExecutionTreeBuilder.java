@@ -0,0 +1,575 @@
+/* This file is part of Mino.
+ *
+ * See the NOTICE file distributed with this work for copyright information.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package mino.walker;
+
+import java.util.*;
+
+import mino.execution.*;
+import mino.language_mino.*;
+import mino.structure.*;
+
+/**
+ * Translates the statements of a method body, or of the main program, into
+ * a tree of executable nodes. Names, literals and classes are resolved once,
+ * here, instead of on every evaluation.
+ */
+public class ExecutionTreeBuilder
+        extends Walker {
+
+    private final InterpreterEngine interpreterEngine;
+
+    private final ClassTable classTable;
+
+    private final boolean specialize;
+
+    private final Inliner inliner;
+
+    private final BooleanClassInfo booleanClassInfo;
+
+    private List<StatementNode> statementNodes;
+
+    private ExpressionNode expressionNode;
+
+    private List<NExp> expList;
+
+    public ExecutionTreeBuilder(
+            InterpreterEngine interpreterEngine,
+            ClassTable classTable,
+            boolean specialize) {
+
+        this(interpreterEngine, classTable, specialize, specialize
+                ? new Inliner(interpreterEngine, classTable) : null);
+    }
+
+    /**
+     * Creates a builder whose call sites inline small methods with the
+     * given Inliner, or do not inline when it is null.
+     */
+    ExecutionTreeBuilder(
+            InterpreterEngine interpreterEngine,
+            ClassTable classTable,
+            boolean specialize,
+            Inliner inliner) {
+
+        this.interpreterEngine = interpreterEngine;
+        this.classTable = classTable;
+        this.specialize = specialize;
+        this.inliner = inliner;
+        this.booleanClassInfo = (BooleanClassInfo) classTable
+                .getBooleanClassInfoOrNull();
+    }
+
+    public void visit(
+            Node node) {
+
+        node.apply(this);
+    }
+
+    public BlockNode build(
+            NStms body) {
+
+        return getBlockNode(body);
+    }
+
+    private BlockNode getBlockNode(
+            NStms node) {
+
+        List<StatementNode> outerStatementNodes = this.statementNodes;
+        this.statementNodes = new ArrayList<StatementNode>();
+        visit(node);
+        List<StatementNode> statementNodes = this.statementNodes;
+        this.statementNodes = outerStatementNodes;
+        return new BlockNode(statementNodes
+                .toArray(new StatementNode[statementNodes.size()]));
+    }
+
+    private ExpressionNode getExpressionNode(
+            Node node) {
+
+        visit(node);
+        ExpressionNode expressionNode = this.expressionNode;
+        this.expressionNode = null;
+        return expressionNode;
+    }
+
+    /**
+     * Builds the node of an operator expression folded by the
+     * ConstantFolder, given by its operator token, and returns whether the
+     * expression was folded.
+     */
+    private boolean buildFolding(
+            Token operatorToken) {
+
+        Folding folding = this.classTable.getFolding(operatorToken);
+        if (folding == null) {
+            return false;
+        }
+
+        if (folding.isConstant()) {
+            this.expressionNode = new ConstantNode(folding.getValue());
+        }
+        else {
+            this.expressionNode = new SimplificationNode(
+                    this.interpreterEngine, getExpressionNode(folding
+                            .getExpression()), folding);
+        }
+
+        return true;
+    }
+
+    private ExpressionNode[] getArgumentNodes(
+            NExpListOpt node) {
+
+        this.expList = new LinkedList<NExp>();
+        visit(node);
+        List<NExp> expList = this.expList;
+        this.expList = null;
+
+        ExpressionNode[] argumentNodes = new ExpressionNode[expList.size()];
+        int i = 0;
+        for (NExp exp : expList) {
+            argumentNodes[i++] = getExpressionNode(exp);
+        }
+        return argumentNodes;
+    }
+
+    private ExpressionNode newOperatorNode(
+            ExpressionNode left,
+            ExpressionNode right,
+            Token operatorToken,
+            String operatorName) {
+
+        if (this.specialize) {
+            return new SpecializingOperatorNode(this.interpreterEngine, left,
+                    right, operatorToken, operatorName, this.classTable);
+        }
+
+        return new OperatorCallNode(this.interpreterEngine, left, right,
+                operatorToken, operatorName);
+    }
+
+    private ExpressionNode newComparisonNode(
+            ExpressionNode left,
+            ExpressionNode right,
+            Token operatorToken,
+            Comparison comparison) {
+
+        if (this.specialize) {
+            return new SpecializingComparisonNode(this.interpreterEngine,
+                    left, right, operatorToken, comparison, this.classTable);
+        }
+
+        return new ComparisonNode(this.interpreterEngine, left, right,
+                operatorToken, comparison);
+    }
+
+    /**
+     * Returns a call node, on self when the receiver is null.
+     */
+    private ExpressionNode newCallNode(
+            ExpressionNode receiver,
+            NId id,
+            ExpressionNode[] args) {
+
+        if (this.specialize) {
+            return new SpecializingCallNode(this.interpreterEngine, receiver,
+                    id, args, this.inliner);
+        }
+        else if (receiver == null) {
+            return new SelfCallNode(this.interpreterEngine, id, args);
+        }
+
+        return new CallNode(this.interpreterEngine, receiver, id, args);
+    }
+
+    private void addStatementNode(
+            StatementNode statementNode) {
+
+        this.statementNodes.add(statementNode);
+    }
+
+    @Override
+    public void caseStm_VarAssign(
+            NStm_VarAssign node) {
+
+        ExpressionNode value = null;
+        if (node.get_AssignOpt() instanceof NAssignOpt_One) {
+            value = getExpressionNode(((NAssignOpt_One) node.get_AssignOpt())
+                    .get_Exp());
+        }
+
+        addStatementNode(new VarAssignNode(this.classTable
+                .getVariableSlot(node.get_Id()), value));
+    }
+
+    @Override
+    public void caseStm_FieldAssign(
+            NStm_FieldAssign node) {
+
+        addStatementNode(new FieldAssignNode(this.classTable
+                .getFieldOffset(node.get_FieldName()),
+                getExpressionNode(node.get_Exp())));
+    }
+
+    @Override
+    public void caseStm_While(
+            NStm_While node) {
+
+        ExpressionNode condition = getExpressionNode(node.get_Exp());
+        BlockNode body = getBlockNode(node.get_Stms());
+        addStatementNode(new WhileNode(condition, body, node.get_LPar(),
+                this.booleanClassInfo));
+    }
+
+    @Override
+    public void caseStm_For(
+            NStm_For node) {
+
+        ExpressionNode from = getExpressionNode(node.get_From());
+        ExpressionNode to = getExpressionNode(node.get_To());
+        ExpressionNode step = null;
+        if (node.get_StepOpt() instanceof NStepOpt_One) {
+            step = getExpressionNode(((NStepOpt_One) node.get_StepOpt())
+                    .get_Exp());
+        }
+
+        BlockNode body = getBlockNode(node.get_Stms());
+        addStatementNode(new ForNode(from, to, step, body, this.classTable
+                .getVariableSlot(node.get_Id()), node.get_LPar(),
+                this.interpreterEngine));
+    }
+
+    @Override
+    public void caseStm_If(
+            NStm_If node) {
+
+        ExpressionNode condition = getExpressionNode(node.get_Exp());
+        BlockNode thenBody = getBlockNode(node.get_Stms());
+        BlockNode elseBody = null;
+        if (node.get_ElseOpt() instanceof NElseOpt_One) {
+            elseBody = getBlockNode(((NElseOpt_One) node.get_ElseOpt())
+                    .get_Else().get_Stms());
+        }
+
+        addStatementNode(new IfNode(condition, thenBody, elseBody,
+                this.booleanClassInfo));
+    }
+
+    @Override
+    public void caseStm_Return(
+            NStm_Return node) {
+
+        ExpressionNode value = null;
+        if (node.get_ExpOpt() instanceof NExpOpt_One) {
+            value = getExpressionNode(((NExpOpt_One) node.get_ExpOpt())
+                    .get_Exp());
+        }
+
+        addStatementNode(new ReturnNode(value));
+    }
+
+    @Override
+    public void caseStm_Call(
+            NStm_Call node) {
+
+        addStatementNode(new ExpressionStatementNode(
+                getExpressionNode(node.get_Call())));
+    }
+
+    @Override
+    public void caseStm_SelfCall(
+            NStm_SelfCall node) {
+
+        addStatementNode(new ExpressionStatementNode(
+                getExpressionNode(node.get_SelfCall())));
+    }
+
+    @Override
+    public void caseExp_Is(
+            NExp_Is node) {
+
+        this.expressionNode = new IsNode(getExpressionNode(node.get_Exp()),
+                getExpressionNode(node.get_AddExp()), this.booleanClassInfo);
+    }
+
+    @Override
+    public void caseExp_Eq(
+            NExp_Eq node) {
+
+        this.expressionNode = new EqualityNode(this.interpreterEngine,
+                getExpressionNode(node.get_Exp()),
+                getExpressionNode(node.get_AddExp()), node.get_Eq(), false,
+                this.booleanClassInfo, this.inliner);
+    }
+
+    @Override
+    public void caseExp_NotEq(
+            NExp_NotEq node) {
+
+        this.expressionNode = new EqualityNode(this.interpreterEngine,
+                getExpressionNode(node.get_Exp()),
+                getExpressionNode(node.get_AddExp()), node.get_NotEq(), true,
+                this.booleanClassInfo, this.inliner);
+    }
+
+    @Override
+    public void caseExp_LowerThan(
+            NExp_LowerThan node) {
+
+        this.expressionNode = newComparisonNode(
+                getExpressionNode(node.get_Exp()),
+                getExpressionNode(node.get_AddExp()), node.get_Lt(),
+                Comparison.LOWER_THAN);
+    }
+
+    @Override
+    public void caseExp_LowerThanEqual(
+            NExp_LowerThanEqual node) {
+
+        this.expressionNode = newComparisonNode(
+                getExpressionNode(node.get_Exp()),
+                getExpressionNode(node.get_AddExp()), node.get_Lte(),
+                Comparison.LOWER_THAN_EQUAL);
+    }
+
+    @Override
+    public void caseExp_GreaterThan(
+            NExp_GreaterThan node) {
+
+        this.expressionNode = newComparisonNode(
+                getExpressionNode(node.get_Exp()),
+                getExpressionNode(node.get_AddExp()), node.get_Gt(),
+                Comparison.GREATER_THAN);
+    }
+
+    @Override
+    public void caseExp_GreaterThanEqual(
+            NExp_GreaterThanEqual node) {
+
+        this.expressionNode = newComparisonNode(
+                getExpressionNode(node.get_Exp()),
+                getExpressionNode(node.get_AddExp()), node.get_Gte(),
+                Comparison.GREATER_THAN_EQUAL);
+    }
+
+    @Override
+    public void caseExp_Isa(
+            NExp_Isa node) {
+
+        this.expressionNode = new IsaNode(getExpressionNode(node.get_Exp()),
+                this.classTable.getReferencedClass(node.get_ClassName()),
+                this.booleanClassInfo);
+    }
+
+    @Override
+    public void caseAddExp_Add(
+            NAddExp_Add node) {
+
+        if (buildFolding(node.get_Plus())) {
+            return;
+        }
+
+        this.expressionNode = newOperatorNode(
+                getExpressionNode(node.get_AddExp()),
+                getExpressionNode(node.get_MultExp()), node.get_Plus(),
+                "+ method");
+    }
+
+    @Override
+    public void caseAddExp_Min(
+            NAddExp_Min node) {
+
+        if (buildFolding(node.get_Min())) {
+            return;
+        }
+
+        this.expressionNode = newOperatorNode(
+                getExpressionNode(node.get_AddExp()),
+                getExpressionNode(node.get_MultExp()), node.get_Min(), "-");
+    }
+
+    @Override
+    public void caseMultExp_Div(
+            NMultExp_Div node) {
+
+        if (buildFolding(node.get_Div())) {
+            return;
+        }
+
+        this.expressionNode = newOperatorNode(
+                getExpressionNode(node.get_MultExp()),
+                getExpressionNode(node.get_LeftUnaryExp()), node.get_Div(),
+                "/");
+    }
+
+    @Override
+    public void caseMultExp_Modul(
+            NMultExp_Modul node) {
+
+        if (buildFolding(node.get_Modul())) {
+            return;
+        }
+
+        this.expressionNode = newOperatorNode(
+                getExpressionNode(node.get_MultExp()),
+                getExpressionNode(node.get_LeftUnaryExp()), node.get_Modul(),
+                "%");
+    }
+
+    @Override
+    public void caseMultExp_Mult(
+            NMultExp_Mult node) {
+
+        if (buildFolding(node.get_Mult())) {
+            return;
+        }
+
+        this.expressionNode = newOperatorNode(
+                getExpressionNode(node.get_MultExp()),
+                getExpressionNode(node.get_LeftUnaryExp()), node.get_Mult(),
+                "*");
+    }
+
+    @Override
+    public void caseLeftUnaryExp_Not(
+            NLeftUnaryExp_Not node) {
+
+        if (buildFolding(node.get_Not())) {
+            return;
+        }
+
+        this.expressionNode = new NotNode(
+                getExpressionNode(node.get_LeftUnaryExp()), node.get_Not(),
+                this.booleanClassInfo);
+    }
+
+    @Override
+    public void caseTerm_New(
+            NTerm_New node) {
+
+        this.expressionNode = new NewNode(this.classTable
+                .getReferencedClass(node.get_ClassName()));
+    }
+
+    @Override
+    public void caseTerm_Field(
+            NTerm_Field node) {
+
+        this.expressionNode = new FieldNode(this.classTable
+                .getFieldOffset(node.get_FieldName()));
+    }
+
+    @Override
+    public void caseTerm_Var(
+            NTerm_Var node) {
+
+        int slot = this.classTable.getVariableSlot(node.get_Id());
+        if (this.classTable.isCounter(node.get_Id())) {
+            this.expressionNode = new CounterNode(slot,
+                    this.interpreterEngine);
+        }
+        else {
+            this.expressionNode = new VariableNode(slot);
+        }
+    }
+
+    @Override
+    public void caseTerm_Num(
+            NTerm_Num node) {
+
+        this.expressionNode = new ConstantNode(this.classTable
+                .getLiteralValue(node.get_Number()));
+    }
+
+    @Override
+    public void caseTerm_Null(
+            NTerm_Null node) {
+
+        this.expressionNode = new ConstantNode(null);
+    }
+
+    @Override
+    public void caseTerm_Self(
+            NTerm_Self node) {
+
+        this.expressionNode = new SelfNode();
+    }
+
+    @Override
+    public void caseTerm_True(
+            NTerm_True node) {
+
+        this.expressionNode = new ConstantNode(this.booleanClassInfo.getTrue());
+    }
+
+    @Override
+    public void caseTerm_False(
+            NTerm_False node) {
+
+        this.expressionNode = new ConstantNode(
+                this.booleanClassInfo.getFalse());
+    }
+
+    @Override
+    public void caseTerm_String(
+            NTerm_String node) {
+
+        this.expressionNode = new ConstantNode(this.classTable
+                .getLiteralValue(node.get_String()));
+    }
+
+    @Override
+    public void caseTerm_Float(
+            NTerm_Float node) {
+
+        this.expressionNode = new ConstantNode(this.classTable
+                .getLiteralValue(node.get_Float()));
+    }
+
+    @Override
+    public void caseCall(
+            NCall node) {
+
+        ExpressionNode[] args = getArgumentNodes(node.get_ExpListOpt());
+        ExpressionNode receiver = getExpressionNode(node.get_RightUnaryExp());
+        this.expressionNode = newCallNode(receiver, node.get_Id(), args);
+    }
+
+    @Override
+    public void caseSelfCall(
+            NSelfCall node) {
+
+        this.expressionNode = newCallNode(null, node.get_Id(),
+                getArgumentNodes(node.get_ExpListOpt()));
+    }
+
+    @Override
+    public void caseExpList(
+            NExpList node) {
+
+        this.expList.add(node.get_Exp());
+        visit(node.get_AdditionalExps());
+    }
+
+    @Override
+    public void caseAdditionalExp(
+            NAdditionalExp node) {
+
+        this.expList.add(node.get_Exp());
+    }
+}
@@ -0,0 +1,261 @@
+/* This file is part of Mino.
+ *
+ * See the NOTICE file distributed with this work for copyright information.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package mino.walker;
+
+import java.util.*;
+
+import mino.execution.*;
+import mino.language_mino.*;
+import mino.structure.*;
+
+/**
+ * Inlines small method bodies at the call sites of the specializing tree
+ * engine. A body is small when it is made of at most MAX_STATEMENTS
+ * assignments, possibly followed by a return, without loops, conditionals
+ * or method calls. Each call site gets its own copy of the body, built
+ * without inlining, so that an inlined body never inlines again.
+ */
+public class Inliner
+        extends Walker {
+
+    private static final int MAX_STATEMENTS = 4;
+
+    private final InterpreterEngine interpreterEngine;
+
+    private final ExecutionTreeBuilder executionTreeBuilder;
+
+    private final Map<MethodInfo, Boolean> methodToLeafMap = new IdentityHashMap<MethodInfo, Boolean>();
+
+    private int statementCount;
+
+    private boolean returned;
+
+    private boolean inlinable;
+
+    private boolean leaf;
+
+    Inliner(
+            InterpreterEngine interpreterEngine,
+            ClassTable classTable) {
+
+        this.interpreterEngine = interpreterEngine;
+        this.executionTreeBuilder = new ExecutionTreeBuilder(
+                interpreterEngine, classTable, true, null);
+    }
+
+    public void visit(
+            Node node) {
+
+        node.apply(this);
+    }
+
+    /**
+     * Returns a copy of the body of a method, guarded by the class of the
+     * receiver, or null when the method cannot be inlined.
+     */
+    public InlinedMethod inline(
+            ClassInfo receiverClassInfo,
+            MethodInfo methodInfo) {
+
+        NStms body = methodInfo.getBody();
+        if (body == null) {
+            return null;
+        }
+
+        Boolean leaf = this.methodToLeafMap.get(methodInfo);
+        if (leaf == null && !this.methodToLeafMap.containsKey(methodInfo)) {
+            leaf = analyze(body);
+            this.methodToLeafMap.put(methodInfo, leaf);
+        }
+
+        if (leaf == null) {
+            return null;
+        }
+
+        return new InlinedMethod(this.interpreterEngine, receiverClassInfo,
+                methodInfo, this.executionTreeBuilder.build(body), leaf);
+    }
+
+    /**
+     * Returns whether an inlinable body is a leaf, which can neither fail
+     * nor invoke a method, or null when the body cannot be inlined.
+     */
+    private Boolean analyze(
+            NStms body) {
+
+        this.statementCount = 0;
+        this.returned = false;
+        this.inlinable = true;
+        this.leaf = true;
+        visit(body);
+
+        if (!this.inlinable) {
+            return null;
+        }
+
+        return this.leaf;
+    }
+
+    private void countStatement() {
+
+        if (this.returned || ++this.statementCount > MAX_STATEMENTS) {
+            this.inlinable = false;
+        }
+    }
+
+    @Override
+    public void inStm_VarAssign(
+            NStm_VarAssign node) {
+
+        countStatement();
+    }
+
+    @Override
+    public void inStm_FieldAssign(
+            NStm_FieldAssign node) {
+
+        countStatement();
+    }
+
+    @Override
+    public void inStm_Return(
+            NStm_Return node) {
+
+        countStatement();
+        this.returned = true;
+    }
+
+    @Override
+    public void caseStm_While(
+            NStm_While node) {
+
+        this.inlinable = false;
+    }
+
+    @Override
+    public void caseStm_For(
+            NStm_For node) {
+
+        this.inlinable = false;
+    }
+
+    @Override
+    public void caseStm_If(
+            NStm_If node) {
+
+        this.inlinable = false;
+    }
+
+    @Override
+    public void caseCall(
+            NCall node) {
+
+        this.inlinable = false;
+    }
+
+    @Override
+    public void caseSelfCall(
+            NSelfCall node) {
+
+        this.inlinable = false;
+    }
+
+    @Override
+    public void inExp_Eq(
+            NExp_Eq node) {
+
+        this.leaf = false;
+    }
+
+    @Override
+    public void inExp_NotEq(
+            NExp_NotEq node) {
+
+        this.leaf = false;
+    }
+
+    @Override
+    public void inExp_LowerThan(
+            NExp_LowerThan node) {
+
+        this.leaf = false;
+    }
+
+    @Override
+    public void inExp_LowerThanEqual(
+            NExp_LowerThanEqual node) {
+
+        this.leaf = false;
+    }
+
+    @Override
+    public void inExp_GreaterThan(
+            NExp_GreaterThan node) {
+
+        this.leaf = false;
+    }
+
+    @Override
+    public void inExp_GreaterThanEqual(
+            NExp_GreaterThanEqual node) {
+
+        this.leaf = false;
+    }
+
+    @Override
+    public void inAddExp_Add(
+            NAddExp_Add node) {
+
+        this.leaf = false;
+    }
+
+    @Override
+    public void inAddExp_Min(
+            NAddExp_Min node) {
+
+        this.leaf = false;
+    }
+
+    @Override
+    public void inMultExp_Div(
+            NMultExp_Div node) {
+
+        this.leaf = false;
+    }
+
+    @Override
+    public void inMultExp_Mult(
+            NMultExp_Mult node) {
+
+        this.leaf = false;
+    }
+
+    @Override
+    public void inMultExp_Modul(
+            NMultExp_Modul node) {
+
+        this.leaf = false;
+    }
+
+    @Override
+    public void inLeftUnaryExp_Not(
+            NLeftUnaryExp_Not node) {
+
+        this.leaf = false;
+    }
+}
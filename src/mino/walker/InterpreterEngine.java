@@ -21,6 +21,7 @@ import java.math.*;
 import java.util.*;
 
 import mino.exception.*;
+import mino.execution.*;
 import mino.language_mino.*;
 import mino.structure.*;
 
@@ -33,12 +34,14 @@ public class InterpreterEngine
 
     private Token operatorToken;
 
-    private List<NExp> expList;
-
     private Instance expEval;
 
     private Frame currentFrame;
 
+    private final FrameStack frameStack = new FrameStack();
+
+    private Frame tailCallFrame;
+
     private ClassInfo objectClassInfo;
 
     private BooleanClassInfo booleanClassInfo;
@@ -49,11 +52,36 @@ public class InterpreterEngine
 
     private FloatClassInfo floatClassInfo;
 
+    private final TokenTable<InlineCache> siteToInlineCacheTable = new TokenTable<InlineCache>();
+
+    private final List<InlineCache> inlineCaches = new ArrayList<InlineCache>();
+
+    private OutputBuffer outputBuffer;
+
+    private MemoCache.Policy memoPolicy = MemoCache.Policy.NONE;
+
+    private int memoSize = MemoCache.DEFAULT_SIZE;
+
+    private final List<MemoCache> memoCaches = new ArrayList<MemoCache>();
+
     public void visit(
             Node node,
             ClassTable classTable) {
 
         this.classTable = classTable;
+        if (this.outputBuffer == null) {
+            this.outputBuffer = new OutputBuffer();
+        }
+        if (this.memoPolicy != MemoCache.Policy.NONE) {
+            for (MethodInfo methodInfo : classTable.getPureMethods()) {
+                if (MemoAnalysis.isCacheable(methodInfo)) {
+                    MemoCache memoCache = new MemoCache(methodInfo,
+                            this.memoPolicy, this.memoSize);
+                    methodInfo.setMemoCache(memoCache);
+                    this.memoCaches.add(memoCache);
+                }
+            }
+        }
         node.apply(this);
     }
 
@@ -64,6 +92,35 @@ public class InterpreterEngine
     }
 
 
+    /**
+     * Sets how the results of pure methods are cached. They are not cached
+     * with the none policy.
+     */
+    public void setMemoPolicy(
+            MemoCache.Policy memoPolicy,
+            int memoSize) {
+
+        this.memoPolicy = memoPolicy;
+        this.memoSize = memoSize;
+    }
+
+    public void setOutputBuffer(
+            OutputBuffer outputBuffer) {
+
+        this.outputBuffer = outputBuffer;
+    }
+
+    /**
+     * Writes what the program printed so far, before anything is printed
+     * on the standard error.
+     */
+    public void flushOutput() {
+
+        if (this.outputBuffer != null) {
+            this.outputBuffer.flush();
+        }
+    }
+
     public void printStackTrace() {
 
         Frame frame = this.currentFrame;
@@ -84,10 +141,89 @@ public class InterpreterEngine
                 System.err.println(" in main program" + location);
             }
 
+            int elidedFrameCount = frame.getElidedFrameCount();
+            if (elidedFrameCount > 0) {
+                System.err.println(" ... " + elidedFrameCount
+                        + " frame(s) elided by tail calls");
+            }
+
             frame = frame.getPreviousFrame();
         }
     }
 
+    /**
+     * Prints the state and the hit and miss counts of every inline cache
+     * that was used.
+     */
+    public void printInlineCacheStatistics() {
+
+        long hitCount = 0;
+        long missCount = 0;
+        for (InlineCache inlineCache : this.inlineCaches) {
+            Token site = inlineCache.getSite();
+            System.err.println("inline cache " + site.getText() + " at line "
+                    + site.getLine() + " position " + site.getPos() + ": "
+                    + inlineCache.getState() + ", "
+                    + inlineCache.getHitCount() + " hits, "
+                    + inlineCache.getMissCount() + " misses");
+            hitCount += inlineCache.getHitCount();
+            missCount += inlineCache.getMissCount();
+        }
+
+        System.err.println("inline caches: " + this.inlineCaches.size()
+                + " sites, " + hitCount + " hits, " + missCount + " misses");
+    }
+
+    /**
+     * Prints the size and the hit and miss counts of the result cache of
+     * every pure method.
+     */
+    public void printMemoStatistics() {
+
+        for (MemoCache memoCache : this.memoCaches) {
+            System.err.println(memoCache.getStatistics());
+        }
+
+        System.err.println("memo caches: " + this.memoCaches.size()
+                + " pure methods");
+    }
+
+    /**
+     * Returns a new inline cache for a call site that keeps its own cache.
+     */
+    public InlineCache newInlineCache(
+            Token site) {
+
+        InlineCache inlineCache = new InlineCache(site,
+                this.classTable.getMethodSlot(site.getText()));
+        ClassInfo receiverType = this.classTable
+                .getDevirtualizedReceiverType(site);
+        if (receiverType != null) {
+            inlineCache.bind(receiverType);
+        }
+        if (this.classTable.isTailCall(site)) {
+            inlineCache.setTailCall();
+        }
+        this.inlineCaches.add(inlineCache);
+        return inlineCache;
+    }
+
+    /**
+     * Returns the inline cache of a call site, identified by the token of
+     * its method name or operator.
+     */
+    public InlineCache getInlineCache(
+            Token site) {
+
+        InlineCache inlineCache = this.siteToInlineCacheTable.get(site);
+        if (inlineCache == null) {
+            inlineCache = newInlineCache(site);
+            this.siteToInlineCacheTable.put(site, inlineCache);
+        }
+
+        return inlineCache;
+    }
+
     private Instance getExpEval(
             Node node) {
 
@@ -97,32 +233,442 @@ public class InterpreterEngine
         return expEval;
     }
 
-    private List<NExp> getExpList(
-            NExpListOpt node) {
+    /**
+     * Evaluates an operator expression folded by the ConstantFolder, given
+     * by its operator token, and returns whether the expression was folded.
+     */
+    private boolean evaluateFolding(
+            Token operatorToken) {
 
-        this.expList = new LinkedList<NExp>();
-        visit(node);
-        List<NExp> expList = this.expList;
-        this.expList = null;
-        return expList;
+        Folding folding = this.classTable.getFolding(operatorToken);
+        if (folding == null) {
+            return false;
+        }
+
+        if (folding.isConstant()) {
+            this.expEval = folding.getValue();
+        }
+        else {
+            Instance value = getExpEval(folding.getExpression());
+            this.expEval = simplify(this.currentFrame, folding, value);
+        }
+
+        return true;
     }
 
-    private Instance execute(
-            MethodInfo invokedMethod,
+    /**
+     * Returns the value of an expression simplified to one of its operands,
+     * from the value of the operand. An operand that is not of the class
+     * the ConstantFolder expected gets the operator of the expression, so
+     * that it behaves and fails as if the expression was not simplified.
+     */
+    public Instance simplify(
+            Frame frame,
+            Folding folding,
+            Instance value) {
+
+        if (value == null) {
+            throw new InterpreterException(folding.getNullMessage(),
+                    folding.getToken());
+        }
+
+        if (folding.accepts(value)) {
+            return value;
+        }
+        else if (folding.getRightOperand() == null) {
+            // !!x
+            return not(not(value, folding.getToken()), folding.getToken());
+        }
+
+        return invokeOperator(frame, value, folding.getRightOperand(),
+                folding.getToken());
+    }
+
+    public Frame getCurrentFrame() {
+
+        return this.currentFrame;
+    }
+
+    /**
+     * Returns a frame for an invocation, taken from the frame stack of the
+     * engine. The frame is released when the invoked method returns through
+     * execute, executeInlined or releaseFrame.
+     */
+    public Frame newFrame(
+            Frame previousFrame,
+            Instance receiver,
+            MethodInfo invokedMethod) {
+
+        return this.frameStack.push(previousFrame, receiver, invokedMethod);
+    }
+
+    /**
+     * Releases the frame of a method that returned without going through
+     * execute, and returns its return value.
+     */
+    public Instance releaseFrame(
+            Frame frame) {
+
+        Instance returnValue = frame.getReturnValue();
+        this.frameStack.pop(frame);
+        return returnValue;
+    }
+
+    /**
+     * Makes the frame of an invocation the current frame, the call site
+     * being recorded in the frame of the caller.
+     */
+    public void enterFrame(
             Frame frame,
             Token location) {
 
         this.currentFrame.setCurrentLocation(location);
         this.currentFrame = frame;
-        try {
-            invokedMethod.execute(this);
-        }
-        catch (ReturnException e) {
-        }
+    }
+
+    /**
+     * Returns from the current frame to the frame of its caller, releases
+     * it and returns its return value.
+     */
+    public Instance leaveFrame(
+            Frame frame) {
 
         this.currentFrame = frame.getPreviousFrame();
         this.currentFrame.setCurrentLocation(null);
-        return frame.getReturnValue();
+        return releaseFrame(frame);
+    }
+
+    /**
+     * Makes the frame of a call in tail position the current frame, in the
+     * place of the frame of its caller.
+     */
+    public void replaceFrame(
+            Frame callerFrame,
+            Frame calleeFrame) {
+
+        this.frameStack.replace(callerFrame, calleeFrame);
+        this.currentFrame = calleeFrame;
+    }
+
+    public Instance execute(
+            MethodInfo invokedMethod,
+            Frame frame,
+            Token location) {
+
+        // a pure method is not run again for the same receiver and arguments
+        MemoCache memoCache = invokedMethod.getMemoCache();
+        MemoCache.Key memoKey = null;
+        if (memoCache != null) {
+            memoKey = memoCache.getKey(frame);
+            if (memoKey != null && memoKey.isCached()) {
+                releaseFrame(frame);
+                return memoKey.getResult();
+            }
+        }
+
+        enterFrame(frame, location);
+        invokedMethod.execute(this);
+
+        Instance result = returnFrom(frame);
+        if (memoKey != null) {
+            memoKey.setResult(result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns from the current frame once its method has run: the calls it
+     * made in tail position run first, in the place of their caller. The
+     * frame is then left and released, and its return value is returned.
+     */
+    public Instance returnFrom(
+            Frame frame) {
+
+        while (this.tailCallFrame != null) {
+            Frame calleeFrame = this.tailCallFrame;
+            this.tailCallFrame = null;
+            replaceFrame(frame, calleeFrame);
+            frame = calleeFrame;
+            frame.getInvokedMethod().execute(this);
+        }
+
+        return leaveFrame(frame);
+    }
+
+    /**
+     * Invokes a method from a call site. A call in tail position is only
+     * recorded: its method runs in execute once the caller has returned,
+     * with its frame in the place of the one of the caller, so that
+     * recursion in tail position does not grow the Java stack. The caller
+     * then returns null, which execute replaces by the actual result.
+     */
+    public Instance invoke(
+            MethodInfo invokedMethod,
+            Frame frame,
+            Token location,
+            boolean tailCall) {
+
+        if (tailCall) {
+            this.tailCallFrame = frame;
+            return null;
+        }
+
+        return execute(invokedMethod, frame, location);
+    }
+
+    /**
+     * Runs a method body inlined at a call site in the frame of the method,
+     * which becomes the current frame as in a regular call.
+     */
+    public Instance executeInlined(
+            BlockNode body,
+            Frame frame,
+            Token location) {
+
+        enterFrame(frame, location);
+        body.execute(frame);
+
+        return leaveFrame(frame);
+    }
+
+    /**
+     * Starts the counter of a for loop from its bounds and its step, which
+     * defaults to 1 when null, and returns whether the loop runs at least
+     * once. The loop then runs on longs, without creating an Integer.
+     */
+    public boolean startCounter(
+            Frame frame,
+            int slot,
+            Instance from,
+            Instance to,
+            Instance step,
+            Token location) {
+
+        long stepValue = 1;
+        if (step != null) {
+            stepValue = getCounterBound(step, "step", location);
+            if (stepValue == 0) {
+                throw new InterpreterException("step of for loop is zero",
+                        location);
+            }
+        }
+
+        return frame.startCounter(slot, getCounterBound(from, "start",
+                location), getCounterBound(to, "end", location), stepValue);
+    }
+
+    private long getCounterBound(
+            Instance value,
+            String name,
+            Token location) {
+
+        if (value == null) {
+            throw new InterpreterException(name + " of for loop is null",
+                    location);
+        }
+        else if (value.getClassInfo() != this.integerClassInfo) {
+            throw new InterpreterException(name
+                    + " of for loop must be an Integer", location);
+        }
+
+        IntegerInstance integer = (IntegerInstance) value;
+        if (!integer.isLong()) {
+            throw new InterpreterException(name
+                    + " of for loop does not fit in 64 bits", location);
+        }
+
+        return integer.getLongValue();
+    }
+
+    /**
+     * Returns the Integer of the current value of the counter of a for loop,
+     * which is only created when the variable of the loop is read.
+     */
+    public Instance getCounter(
+            Frame frame,
+            int slot) {
+
+        return this.integerClassInfo.newInteger(frame.getCounter(slot));
+    }
+
+    public Instance toBoolean(
+            boolean value) {
+
+        if (value) {
+            return this.booleanClassInfo.getTrue();
+        }
+
+        return this.booleanClassInfo.getFalse();
+    }
+
+    public Instance invokeOperator(
+            Frame frame,
+            Instance left,
+            Instance right,
+            Token operatorToken) {
+
+        MethodInfo invokedMethod = getInlineCache(operatorToken).getMethodInfo(
+                left.getClassInfo());
+        return invokeOperator(frame, invokedMethod, left, right,
+                operatorToken);
+    }
+
+    /**
+     * Invokes an operator method already looked up for the left operand.
+     */
+    public Instance invokeOperator(
+            Frame frame,
+            MethodInfo invokedMethod,
+            Instance left,
+            Instance right,
+            Token operatorToken) {
+
+        Instance result = invokeIntrinsicOperator(invokedMethod, left, right);
+        if (result != null) {
+            return result;
+        }
+
+        Frame calleeFrame = newFrame(frame, left, invokedMethod);
+        calleeFrame.setParam(right);
+        return execute(invokedMethod, calleeFrame, operatorToken);
+    }
+
+    /**
+     * Computes a primitive Integer or Float operator directly on the operand
+     * values, without building a frame. Returns null when the operands are
+     * not handled, such as a String right operand or a division by zero; the
+     * operator must then be invoked as a method, so that it behaves and
+     * fails as usual.
+     */
+    public Instance invokeIntrinsicOperator(
+            MethodInfo invokedMethod,
+            Instance left,
+            Instance right) {
+
+        if (!(invokedMethod instanceof PrimitiveOperatorMethodInfo)) {
+            return null;
+        }
+
+        char operator = invokedMethod.getName().charAt(0);
+        ClassInfo leftClassInfo = left.getClassInfo();
+        ClassInfo rightClassInfo = right.getClassInfo();
+        if (leftClassInfo == this.integerClassInfo
+                && rightClassInfo == this.integerClassInfo) {
+            return integerArithmetic(operator, (IntegerInstance) left,
+                    (IntegerInstance) right);
+        }
+        else if (leftClassInfo == this.floatClassInfo) {
+            float rightValue;
+            if (rightClassInfo == this.floatClassInfo) {
+                rightValue = ((FloatInstance) right).getValue();
+            }
+            else if (rightClassInfo == this.integerClassInfo) {
+                rightValue = ((IntegerInstance) right).floatValue();
+            }
+            else {
+                return null;
+            }
+
+            return floatArithmetic(operator, ((FloatInstance) left)
+                    .getValue(), rightValue);
+        }
+
+        return null;
+    }
+
+    /**
+     * Applies an arithmetic operator to two Integers. Returns null for a
+     * division by zero or a non-positive modulus.
+     */
+    public Instance integerArithmetic(
+            char operator,
+            IntegerInstance left,
+            IntegerInstance right) {
+
+        return this.integerClassInfo.arithmetic(operator, left, right);
+    }
+
+    /**
+     * Applies an arithmetic operator to a Float and a numeric value. Returns
+     * null for a division by zero.
+     */
+    public Instance floatArithmetic(
+            char operator,
+            float left,
+            float right) {
+
+        return this.floatClassInfo.arithmetic(operator, left, right);
+    }
+
+    /**
+     * Compares Integer and Float values numerically, and dispatches to the
+     * operator method of any other left operand. Two Integers are compared
+     * exactly, mixed operands as floats.
+     */
+    public Instance compare(
+            Frame frame,
+            Instance left,
+            Instance right,
+            Token operatorToken,
+            Comparison comparison) {
+
+        if (left == null) {
+            throw new InterpreterException("left member cannot be null",
+                    operatorToken);
+        }
+        else if (right == null) {
+            throw new InterpreterException("right member cannot be null",
+                    operatorToken);
+        }
+        else if (!left.isa(this.floatClassInfo)
+                && !left.isa(this.integerClassInfo)) {
+            return invokeOperator(frame, left, right, operatorToken);
+        }
+        else if (left.isa(this.integerClassInfo)
+                && right.isa(this.integerClassInfo)) {
+            return toBoolean(comparison.holds(((IntegerInstance) left)
+                    .compareTo((IntegerInstance) right)));
+        }
+
+        Float leftValue;
+        Float rightValue;
+
+        if (left.isa(this.integerClassInfo)) {
+            leftValue = ((IntegerInstance) left).floatValue();
+        }
+        else {
+            leftValue = ((FloatInstance) left).getValue();
+        }
+
+        if (right.isa(this.integerClassInfo)) {
+            rightValue = ((IntegerInstance) right).floatValue();
+        }
+        else if (right.isa(this.floatClassInfo)) {
+            rightValue = ((FloatInstance) right).getValue();
+        }
+        else {
+            throw new InterpreterException(
+                    "right member must be Integer or Float", operatorToken);
+        }
+
+        return toBoolean(comparison.holds(leftValue.compareTo(rightValue)));
+    }
+
+    public Instance not(
+            Instance value,
+            Token notToken) {
+
+        if (value == null) {
+            throw new InterpreterException("expression is null", notToken);
+        }
+
+        if (!value.isa(this.booleanClassInfo)) {
+            throw new InterpreterException("expression is not boolean",
+                    notToken);
+        }
+
+        return toBoolean(value != this.booleanClassInfo.getTrue());
     }
 
     @Override
@@ -145,10 +691,29 @@ public class InterpreterEngine
         Instance instance = this.objectClassInfo.newInstance();
 
         // create initial frame
-        this.currentFrame = new Frame(null, instance, null);
+        this.currentFrame = new Frame(null, instance, null, this.classTable
+                .getMainLocalCount());
 
         // execute statements
+        executeBody(node.get_Stms());
+    }
+
+    public void executeBody(
+            NStms body) {
+
+        visit(body);
+    }
+
+    @Override
+    public void caseStms_More(
+            NStms_More node) {
+
         visit(node.get_Stms());
+
+        // skip the statements following a return
+        if (!this.currentFrame.hasReturned()) {
+            visit(node.get_Stm());
+        }
     }
 
     @Override
@@ -160,9 +725,11 @@ public class InterpreterEngine
         if(node.get_AssignOpt() instanceof NAssignOpt_One){
             exp = ((NAssignOpt_One)node.get_AssignOpt()).get_Exp();
             Instance value = getExpEval(exp);
-            this.currentFrame.setVar(node.get_Id(), value);
+            this.currentFrame.setVar(this.classTable.getVariableSlot(node
+                    .get_Id()), value);
         }else{
-            this.currentFrame.setVar(node.get_Id(), null);
+            this.currentFrame.setVar(this.classTable.getVariableSlot(node
+                    .get_Id()), null);
         }
     }
 
@@ -172,7 +739,8 @@ public class InterpreterEngine
 
         Instance value = getExpEval(node.get_Exp());
         Instance self = this.currentFrame.getReceiver();
-        self.setField(node.get_FieldName(), value);
+        self.setField(this.classTable.getFieldOffset(node.get_FieldName()),
+                value);
     }
 
     @Override
@@ -192,9 +760,41 @@ public class InterpreterEngine
 
             // execute statements
             visit(node.get_Stms());
+
+            if (this.currentFrame.hasReturned()) {
+                break;
+            }
         }
     }
 
+    @Override
+    public void caseStm_For(
+            NStm_For node) {
+
+        Instance from = getExpEval(node.get_From());
+        Instance to = getExpEval(node.get_To());
+        Instance step = null;
+        if (node.get_StepOpt() instanceof NStepOpt_One) {
+            step = getExpEval(((NStepOpt_One) node.get_StepOpt()).get_Exp());
+        }
+
+        int slot = this.classTable.getVariableSlot(node.get_Id());
+        if (!startCounter(this.currentFrame, slot, from, to, step,
+                node.get_LPar())) {
+            return;
+        }
+
+        do {
+            // execute statements
+            visit(node.get_Stms());
+
+            if (this.currentFrame.hasReturned()) {
+                break;
+            }
+        }
+        while (this.currentFrame.nextCounter(slot));
+    }
+
     @Override
     public void caseStm_If(
             NStm_If node) {
@@ -220,7 +820,7 @@ public class InterpreterEngine
             this.currentFrame.setReturnValue(value);
         }
 
-        throw new ReturnException();
+        this.currentFrame.setReturned();
     }
 
     @Override
@@ -243,7 +843,7 @@ public class InterpreterEngine
 
         Instance left = getExpEval(node.get_Exp());
         Instance right = getExpEval(node.get_AddExp());
-        if (left == right) {
+        if (Instance.same(left, right)) {
             this.expEval = this.booleanClassInfo.getTrue();
         }
         else {
@@ -266,11 +866,8 @@ public class InterpreterEngine
             }
         }
         else {
-            MethodInfo invokedMethod = left.getClassInfo().getMethodTable()
-                    .getMethodInfo(node.get_Eq());
-            Frame frame = new Frame(this.currentFrame, left, invokedMethod);
-            frame.setParam(right);
-            this.expEval = execute(invokedMethod, frame, node.get_Eq());
+            this.expEval = invokeOperator(this.currentFrame, left, right,
+                    node.get_Eq());
         }
     }
 
@@ -289,11 +886,8 @@ public class InterpreterEngine
             }
         }
         else {
-            MethodInfo invokedMethod = left.getClassInfo().getMethodTable()
-                    .getMethodInfo(node.get_NotEq());
-            Frame frame = new Frame(this.currentFrame, left, invokedMethod);
-            frame.setParam(right);
-            this.expEval = execute(invokedMethod, frame, node.get_NotEq());
+            this.expEval = invokeOperator(this.currentFrame, left, right,
+                    node.get_NotEq());
         }
     }
 
@@ -303,44 +897,8 @@ public class InterpreterEngine
 
         Instance left = getExpEval(node.get_Exp());
         Instance right = getExpEval(node.get_AddExp());
-        Token lt = node.get_Lt();
-
-        if(left == null){
-            throw new InterpreterException("left member cannot be null", lt);
-        }else if(right == null){
-            throw new InterpreterException("right member cannot be null", lt);
-        }else if(left.isa(this.floatClassInfo) || left.isa(this.integerClassInfo)){
-
-            Float leftValue;
-            Float rightValue;
-
-            if(left.isa(this.integerClassInfo)){
-                leftValue = ((IntegerInstance)left).getValue().floatValue();
-            }else{
-                leftValue = ((FloatInstance)left).getValue();
-            }
-
-            if(right.isa(this.integerClassInfo)){
-                rightValue = ((IntegerInstance)right).getValue().floatValue();
-            }
-            else if(right.isa(this.floatClassInfo)){
-                rightValue = ((FloatInstance)right).getValue();
-            }
-            else{
-                throw new InterpreterException("right member must be Integer or Float", lt);
-            }
-            if(leftValue.compareTo(rightValue) == -1){
-                this.expEval = this.booleanClassInfo.getTrue();
-            }else{
-                this.expEval = this.booleanClassInfo.getFalse();
-            }
-        }else{
-            MethodInfo invokedMethod = left.getClassInfo().getMethodTable()
-                    .getMethodInfo(lt);
-            Frame frame = new Frame(this.currentFrame, left, invokedMethod);
-            frame.setParam(right);
-            this.expEval = execute(invokedMethod, frame, lt);
-        }
+        this.expEval = compare(this.currentFrame, left, right, node.get_Lt(),
+                Comparison.LOWER_THAN);
     }
 
     @Override
@@ -349,45 +907,8 @@ public class InterpreterEngine
 
         Instance left = getExpEval(node.get_Exp());
         Instance right = getExpEval(node.get_AddExp());
-        Token lte = node.get_Lte();
-
-        if(left == null){
-            throw new InterpreterException("left member cannot be null", lte);
-        }else if(right == null){
-            throw new InterpreterException("right member cannot be null", lte);
-        }else if(left.isa(this.floatClassInfo) || left.isa(this.integerClassInfo)){
-
-            Float leftValue;
-            Float rightValue;
-
-            if(left.isa(this.integerClassInfo)){
-                leftValue = ((IntegerInstance)left).getValue().floatValue();
-            }else{
-                leftValue = ((FloatInstance)left).getValue();
-            }
-
-            if(right.isa(this.integerClassInfo)){
-                rightValue = ((IntegerInstance)right).getValue().floatValue();
-            }
-            else if(right.isa(this.floatClassInfo)){
-                rightValue = ((FloatInstance)right).getValue();
-            }
-            else{
-                throw new InterpreterException("right member must be Integer or Float", lte);
-            }
-            if(leftValue.compareTo(rightValue) != 1){
-                this.expEval = this.booleanClassInfo.getTrue();
-            }else{
-                this.expEval = this.booleanClassInfo.getFalse();
-            }
-        }else{
-
-            MethodInfo invokedMethod = left.getClassInfo().getMethodTable()
-                    .getMethodInfo(lte);
-            Frame frame = new Frame(this.currentFrame, left, invokedMethod);
-            frame.setParam(right);
-            this.expEval = execute(invokedMethod, frame, lte);
-        }
+        this.expEval = compare(this.currentFrame, left, right, node.get_Lte(),
+                Comparison.LOWER_THAN_EQUAL);
     }
 
     @Override
@@ -396,92 +917,18 @@ public class InterpreterEngine
 
         Instance left = getExpEval(node.get_Exp());
         Instance right = getExpEval(node.get_AddExp());
-        Token gt = node.get_Gt();
-
-        if(left == null){
-            throw new InterpreterException("left member cannot be null", gt);
-        }else if(right == null){
-            throw new InterpreterException("right member cannot be null", gt);
-        }else if(left.isa(this.floatClassInfo) || left.isa(this.integerClassInfo)){
-
-            Float leftValue;
-            Float rightValue;
-
-            if(left.isa(this.integerClassInfo)){
-                leftValue = ((IntegerInstance)left).getValue().floatValue();
-            }else{
-                leftValue = ((FloatInstance)left).getValue();
-            }
-
-            if(right.isa(this.integerClassInfo)){
-                rightValue = ((IntegerInstance)right).getValue().floatValue();
-            }
-            else if(right.isa(this.floatClassInfo)){
-                rightValue = ((FloatInstance)right).getValue();
-            }
-            else{
-                throw new InterpreterException("right member must be Integer or Float", gt);
-            }
-
-            if(leftValue.compareTo(rightValue) == 1){
-                this.expEval = this.booleanClassInfo.getTrue();
-            }else{
-                this.expEval = this.booleanClassInfo.getFalse();
-            }
-        }else{
-
-            MethodInfo invokedMethod = left.getClassInfo().getMethodTable()
-                    .getMethodInfo(gt);
-            Frame frame = new Frame(this.currentFrame, left, invokedMethod);
-            frame.setParam(right);
-            this.expEval = execute(invokedMethod, frame, gt);
-        }
+        this.expEval = compare(this.currentFrame, left, right, node.get_Gt(),
+                Comparison.GREATER_THAN);
     }
 
     @Override
-    public void caseExp_GreaterThanEqual(NExp_GreaterThanEqual node) {
+    public void caseExp_GreaterThanEqual(
+            NExp_GreaterThanEqual node) {
 
         Instance left = getExpEval(node.get_Exp());
         Instance right = getExpEval(node.get_AddExp());
-        Token gte = node.get_Gte();
-
-        if(left == null){
-            throw new InterpreterException("left member cannot be null", gte);
-        }else if(right == null){
-            throw new InterpreterException("right member cannot be null", gte);
-        }else if(left.isa(this.floatClassInfo) || left.isa(this.integerClassInfo)){
-
-            Float leftValue;
-            Float rightValue;
-
-            if(left.isa(this.integerClassInfo)){
-                leftValue = ((IntegerInstance)left).getValue().floatValue();
-            }else{
-                leftValue = ((FloatInstance)left).getValue();
-            }
-
-            if(right.isa(this.integerClassInfo)){
-                rightValue = ((IntegerInstance)right).getValue().floatValue();
-            }else if(right.isa(this.floatClassInfo)){
-                rightValue = ((FloatInstance)right).getValue();
-            }
-            else{
-                throw new InterpreterException("right member must be Integer or Float", gte);
-            }
-
-            if(leftValue.compareTo(rightValue) != -1){
-                this.expEval = this.booleanClassInfo.getTrue();
-            }else{
-                this.expEval = this.booleanClassInfo.getFalse();
-            }
-        }else{
-
-            MethodInfo invokedMethod = left.getClassInfo().getMethodTable()
-                    .getMethodInfo(gte);
-            Frame frame = new Frame(this.currentFrame, left, invokedMethod);
-            frame.setParam(right);
-            this.expEval = execute(invokedMethod, frame, gte);
-        }
+        this.expEval = compare(this.currentFrame, left, right, node.get_Gte(),
+                Comparison.GREATER_THAN_EQUAL);
     }
 
     @Override
@@ -489,7 +936,8 @@ public class InterpreterEngine
             NExp_Isa node) {
 
         Instance left = getExpEval(node.get_Exp());
-        ClassInfo right = this.classTable.get(node.get_ClassName());
+        ClassInfo right = this.classTable.getReferencedClass(node
+                .get_ClassName());
 
         if (left == null) {
             this.expEval = this.booleanClassInfo.getTrue();
@@ -506,6 +954,10 @@ public class InterpreterEngine
     public void caseAddExp_Add(
             NAddExp_Add node) {
 
+        if (evaluateFolding(node.get_Plus())) {
+            return;
+        }
+
         Instance left = getExpEval(node.get_AddExp());
         Instance right = getExpEval(node.get_MultExp());
         if (left == null) {
@@ -517,11 +969,8 @@ public class InterpreterEngine
                     "right argument of + method is null", node.get_Plus());
         }
         else {
-            MethodInfo invokedMethod = left.getClassInfo().getMethodTable()
-                    .getMethodInfo(node.get_Plus());
-            Frame frame = new Frame(this.currentFrame, left, invokedMethod);
-            frame.setParam(right);
-            this.expEval = execute(invokedMethod, frame, node.get_Plus());
+            this.expEval = invokeOperator(this.currentFrame, left, right,
+                    node.get_Plus());
         }
     }
 
@@ -529,6 +978,10 @@ public class InterpreterEngine
     public void caseAddExp_Min(
             NAddExp_Min node) {
 
+        if (evaluateFolding(node.get_Min())) {
+            return;
+        }
+
         Instance left = getExpEval(node.get_AddExp());
         Instance right = getExpEval(node.get_MultExp());
         if(left == null){
@@ -537,10 +990,8 @@ public class InterpreterEngine
         else if(right == null){
             throw new InterpreterException("right argument of - is null", node.get_Min());
         }else{
-            MethodInfo invokedMethod = left.getClassInfo().getMethodTable().getMethodInfo(node.get_Min());
-            Frame frame = new Frame(this.currentFrame, left, invokedMethod);
-            frame.setParam(right);
-            this.expEval = execute(invokedMethod, frame, node.get_Min());
+            this.expEval = invokeOperator(this.currentFrame, left, right,
+                    node.get_Min());
         }
     }
 
@@ -548,6 +999,10 @@ public class InterpreterEngine
     public void caseMultExp_Div(
             NMultExp_Div node) {
 
+        if (evaluateFolding(node.get_Div())) {
+            return;
+        }
+
         Instance left = getExpEval(node.get_MultExp());
         Instance right = getExpEval(node.get_LeftUnaryExp());
 
@@ -557,10 +1012,8 @@ public class InterpreterEngine
         else if(right == null){
             throw new InterpreterException("right argument of / is null", node.get_Div());
         }else{
-            MethodInfo invokedMethod = left.getClassInfo().getMethodTable().getMethodInfo(node.get_Div());
-            Frame frame = new Frame(this.currentFrame, left, invokedMethod);
-            frame.setParam(right);
-            this.expEval = execute(invokedMethod, frame, node.get_Div());
+            this.expEval = invokeOperator(this.currentFrame, left, right,
+                    node.get_Div());
         }
     }
 
@@ -568,6 +1021,10 @@ public class InterpreterEngine
     public void caseMultExp_Modul(
             NMultExp_Modul node) {
 
+        if (evaluateFolding(node.get_Modul())) {
+            return;
+        }
+
         Instance left = getExpEval(node.get_MultExp());
         Instance right = getExpEval(node.get_LeftUnaryExp());
 
@@ -577,16 +1034,18 @@ public class InterpreterEngine
         else if(right == null){
             throw new InterpreterException("right argument of % is null", node.get_Modul());
         }else{
-            MethodInfo invokedMethod = left.getClassInfo().getMethodTable().getMethodInfo(node.get_Modul());
-            Frame frame = new Frame(this.currentFrame, left, invokedMethod);
-            frame.setParam(right);
-            this.expEval = execute(invokedMethod, frame, node.get_Modul());
+            this.expEval = invokeOperator(this.currentFrame, left, right,
+                    node.get_Modul());
         }
     }
 
     @Override
     public void caseMultExp_Mult(NMultExp_Mult node) {
 
+        if (evaluateFolding(node.get_Mult())) {
+            return;
+        }
+
         Instance left = getExpEval(node.get_MultExp());
         Instance right = getExpEval(node.get_LeftUnaryExp());
 
@@ -596,10 +1055,8 @@ public class InterpreterEngine
         else if(right == null){
             throw new InterpreterException("right argument of * is null", node.get_Mult());
         }else{
-            MethodInfo invokedMethod = left.getClassInfo().getMethodTable().getMethodInfo(node.get_Mult());
-            Frame frame = new Frame(this.currentFrame, left, invokedMethod);
-            frame.setParam(right);
-            this.expEval = execute(invokedMethod, frame, node.get_Mult());
+            this.expEval = invokeOperator(this.currentFrame, left, right,
+                    node.get_Mult());
         }
     }
 
@@ -607,38 +1064,20 @@ public class InterpreterEngine
     public void caseLeftUnaryExp_Not(
             NLeftUnaryExp_Not node) {
 
-        Instance value = getExpEval(node.get_LeftUnaryExp());
-        if (value == null) {
-            throw new InterpreterException("expression is null", node.get_Not());
+        if (evaluateFolding(node.get_Not())) {
+            return;
         }
 
-        if (!value.isa(this.booleanClassInfo)) {
-            throw new InterpreterException("expression is not boolean",
-                    node.get_Not());
-        }
-
-        if (value == this.booleanClassInfo.getTrue()) {
-            this.expEval = this.booleanClassInfo.getFalse();
-        }
-        else {
-            this.expEval = this.booleanClassInfo.getTrue();
-        }
+        Instance value = getExpEval(node.get_LeftUnaryExp());
+        this.expEval = not(value, node.get_Not());
     }
 
     @Override
     public void caseTerm_New(
             NTerm_New node) {
 
-        ClassInfo classInfo = this.classTable.get(node.get_ClassName());
-
-        String name = classInfo.getName();
-        if (name.equals("Boolean") || name.equals("Integer")
-                || name.equals("String")) {
-            throw new InterpreterException("invalid use of new operator",
-                    node.get_NewKwd());
-        }
-
-        this.expEval = classInfo.newInstance();
+        this.expEval = this.classTable.getReferencedClass(node.get_ClassName())
+                .newInstance();
     }
 
     @Override
@@ -646,22 +1085,29 @@ public class InterpreterEngine
             NTerm_Field node) {
 
         Instance self = this.currentFrame.getReceiver();
-        this.expEval = self.getField(node.get_FieldName());
+        this.expEval = self.getField(this.classTable.getFieldOffset(node
+                .get_FieldName()));
     }
 
     @Override
     public void caseTerm_Var(
             NTerm_Var node) {
 
-        this.expEval = this.currentFrame.getVar(node.get_Id());
+        if (this.classTable.isCounter(node.get_Id())) {
+            this.expEval = getCounter(this.currentFrame, this.classTable
+                    .getVariableSlot(node.get_Id()));
+            return;
+        }
+
+        this.expEval = this.currentFrame.getVar(this.classTable
+                .getVariableSlot(node.get_Id()));
     }
 
     @Override
     public void caseTerm_Num(
             NTerm_Num node) {
 
-        this.expEval = this.integerClassInfo.newInteger(new BigInteger(node
-                .get_Number().getText()));
+        this.expEval = this.classTable.getLiteralValue(node.get_Number());
     }
 
     @Override
@@ -696,71 +1142,58 @@ public class InterpreterEngine
     public void caseTerm_String(
             NTerm_String node) {
 
-        String string = node.get_String().getText();
-        this.expEval = this.stringClassInfo.newString(string.substring(1,
-                string.length() - 1));
+        this.expEval = this.classTable.getLiteralValue(node.get_String());
     }
 
     @Override
     public void caseTerm_Float(
             NTerm_Float node) {
-        Float floatValue = Float.parseFloat(node.get_Float().getText());
-        this.expEval = this.floatClassInfo.newFloat(floatValue);
+
+        this.expEval = this.classTable.getLiteralValue(node.get_Float());
     }
 
     @Override
     public void caseCall(
             NCall node) {
 
-        List<NExp> expList = getExpList(node.get_ExpListOpt());
+        NExp[] arguments = this.classTable.getArguments(node.get_Id());
 
         Instance receiver = getExpEval(node.get_RightUnaryExp());
 
-        MethodInfo invokedMethod = receiver.getClassInfo().getMethodTable()
-                .getMethodInfo(node.get_Id());
+        InlineCache inlineCache = getInlineCache(node.get_Id());
+        MethodInfo invokedMethod = inlineCache.getMethodInfo(receiver
+                .getClassInfo());
 
-        Frame frame = new Frame(this.currentFrame, receiver, invokedMethod);
+        Frame frame = newFrame(this.currentFrame, receiver, invokedMethod);
 
-        for (NExp exp : expList) {
-            frame.setParam(getExpEval(exp));
+        for (NExp argument : arguments) {
+            frame.setParam(getExpEval(argument));
         }
 
-        this.expEval = execute(invokedMethod, frame, node.get_Id());
+        this.expEval = invoke(invokedMethod, frame, node.get_Id(),
+                inlineCache.isTailCall());
     }
 
     @Override
     public void caseSelfCall(
             NSelfCall node) {
 
-        List<NExp> expList = getExpList(node.get_ExpListOpt());
+        NExp[] arguments = this.classTable.getArguments(node.get_Id());
 
         Instance receiver = this.currentFrame.getReceiver();
 
-        MethodInfo invokedMethod = receiver.getClassInfo().getMethodTable()
-                .getMethodInfo(node.get_Id());
+        InlineCache inlineCache = getInlineCache(node.get_Id());
+        MethodInfo invokedMethod = inlineCache.getMethodInfo(receiver
+                .getClassInfo());
 
-        Frame frame = new Frame(this.currentFrame, receiver, invokedMethod);
+        Frame frame = newFrame(this.currentFrame, receiver, invokedMethod);
 
-        for (NExp exp : expList) {
-            frame.setParam(getExpEval(exp));
+        for (NExp argument : arguments) {
+            frame.setParam(getExpEval(argument));
         }
 
-        this.expEval = execute(invokedMethod, frame, node.get_Id());
-    }
-
-    @Override
-    public void caseExpList(
-            NExpList node) {
-
-        this.expList.add(node.get_Exp());
-        visit(node.get_AdditionalExps());
-    }
-
-    @Override
-    public void caseAdditionalExp(
-            NAdditionalExp node) {
-
-        this.expList.add(node.get_Exp());
+        this.expEval = invoke(invokedMethod, frame, node.get_Id(),
+                inlineCache.isTailCall());
     }
 
     public void integerPlus(
@@ -769,8 +1202,7 @@ public class InterpreterEngine
         IntegerInstance self = (IntegerInstance) this.currentFrame
                 .getReceiver();
 
-        String argInfo = methodInfo.getParamName(0);
-        Instance arg = this.currentFrame.getParameterValueWithoutId(argInfo);
+        Instance arg = this.currentFrame.getParam(0);
 
         //If not an integer nor a string
         if (!arg.isa(this.stringClassInfo) && !arg.isa(this.integerClassInfo) && !arg.isa(this.floatClassInfo)) {
@@ -779,15 +1211,11 @@ public class InterpreterEngine
         }
 
         if(arg.isa(this.stringClassInfo)){
-            String left = self.getValue().toString();
-            String right = ((StringInstance) arg).getValue();
-            this.currentFrame.setReturnValue(this.stringClassInfo.newString(left
-                    .concat(right)));
+            this.currentFrame.setReturnValue(this.stringClassInfo.concat(
+                    self.toString(), (StringInstance) arg));
         }else{
-            BigInteger left = self.getValue();
-            BigInteger right = ((IntegerInstance) arg).getValue();
-            this.currentFrame.setReturnValue(this.integerClassInfo.newInteger(left
-                    .add(right)));
+            this.currentFrame.setReturnValue(integerArithmetic('+', self,
+                    (IntegerInstance) arg));
         }
 
     }
@@ -797,14 +1225,12 @@ public class InterpreterEngine
 
         StringInstance self = (StringInstance) this.currentFrame.getReceiver();
 
-        String argName = methodInfo.getParamName(0);
-        Instance arg = this.currentFrame.getParameterValueWithoutId(argName);
+        Instance arg = this.currentFrame.getParam(0);
 
-        String left = self.getValue();
         String right;
 
         if(arg.isa(this.integerClassInfo)){
-            right = ((IntegerInstance) arg).getValue().toString();
+            right = arg.toString();
         }else if(arg.isa(this.booleanClassInfo)){
             right = ((BooleanInstance)arg).getValue().toString();
         }else if(arg.isa(this.floatClassInfo)){
@@ -813,16 +1239,14 @@ public class InterpreterEngine
         else{
             right = arg.toString();
         }
-        this.currentFrame.setReturnValue(this.stringClassInfo.newString(left
-                .concat(right)));
+        this.currentFrame.setReturnValue(this.stringClassInfo.concat(self,
+                right));
     }
 
     public void objectAbort(
             MethodInfo methodInfo) {
 
-        VariableInfo argInfo = methodInfo.getParamInfo(0);
-
-        Instance arg = this.currentFrame.getParameterValueWithoutId(argInfo.getName());
+        Instance arg = this.currentFrame.getParam(0);
         String message = "ABORT: " + ((StringInstance) arg).getValue();
         throw new InterpreterException(message, this.currentFrame
                 .getPreviousFrame().getCurrentLocation());
@@ -834,35 +1258,33 @@ public class InterpreterEngine
         IntegerInstance self = (IntegerInstance) this.currentFrame
                 .getReceiver();
         this.currentFrame.setReturnValue(this.stringClassInfo.newString(self
-                .getValue().toString()));
+                .toString()));
     }
 
     public void stringToSystemOut(
             PrimitiveNormalMethodInfo primitiveNormalMethodInfo) {
 
         StringInstance self = (StringInstance) this.currentFrame.getReceiver();
-        System.out.println(self.getValue());
+        this.outputBuffer.println(self.getValue());
     }
 
     public void integerDiv(
             MethodInfo methodInfo){
 
         IntegerInstance self = (IntegerInstance) this.currentFrame.getReceiver();
-        String argName = methodInfo.getParamName(0);
-        Instance arg = this.currentFrame.getParameterValueWithoutId(argName);
+        Instance arg = this.currentFrame.getParam(0);
         if(!arg.isa(this.integerClassInfo)){
             throw new InterpreterException("right argument is not Integer",
                     this.currentFrame.getPreviousFrame().getCurrentLocation());
         }
 
-        BigInteger left = self.getValue();
-        BigInteger right = ((IntegerInstance)arg).getValue();
+        IntegerInstance right = (IntegerInstance)arg;
 
-        if(right.equals(BigInteger.ZERO)){
+        if(right.signum() == 0){
             throw new RuntimeException("Cannot divide by 0");
         }
 
-        this.currentFrame.setReturnValue(this.integerClassInfo.newInteger(left.divide(right)));
+        this.currentFrame.setReturnValue(integerArithmetic('/', self, right));
 
     }
 
@@ -870,18 +1292,22 @@ public class InterpreterEngine
             MethodInfo methodInfo){
 
         IntegerInstance self = (IntegerInstance) this.currentFrame.getReceiver();
-        String argName = methodInfo.getParamName(0);
-        Instance arg = this.currentFrame.getParameterValueWithoutId(argName);
+        Instance arg = this.currentFrame.getParam(0);
 
         if(!arg.isa(this.integerClassInfo)){
             throw new InterpreterException("right argument is not Integer",
                     this.currentFrame.getPreviousFrame().getCurrentLocation());
         }
 
-        BigInteger left = self.getValue();
-        BigInteger right = ((IntegerInstance)arg).getValue();
+        IntegerInstance right = (IntegerInstance)arg;
+        Instance result = integerArithmetic('%', self, right);
+
+        if(result == null){
+            // let BigInteger report the non-positive modulus
+            result = this.integerClassInfo.newInteger(self.getValue().mod(right.getValue()));
+        }
 
-        this.currentFrame.setReturnValue(this.integerClassInfo.newInteger(left.mod(right)));
+        this.currentFrame.setReturnValue(result);
 
     }
 
@@ -889,18 +1315,14 @@ public class InterpreterEngine
             MethodInfo methodInfo){
 
         IntegerInstance self = (IntegerInstance) this.currentFrame.getReceiver();
-        String argName = methodInfo.getParamName(0);
-        Instance arg = this.currentFrame.getParameterValueWithoutId(argName);
+        Instance arg = this.currentFrame.getParam(0);
 
         if(!arg.isa(this.integerClassInfo)){
             throw new InterpreterException("right argument is not Integer",
                     this.currentFrame.getPreviousFrame().getCurrentLocation());
         }
 
-        BigInteger left = self.getValue();
-        BigInteger right = ((IntegerInstance)arg).getValue();
-
-        this.currentFrame.setReturnValue(this.integerClassInfo.newInteger(left.min(right)));
+        this.currentFrame.setReturnValue(integerArithmetic('-', self, (IntegerInstance)arg));
 
     }
 
@@ -908,18 +1330,14 @@ public class InterpreterEngine
             MethodInfo methodInfo){
 
         IntegerInstance self = (IntegerInstance) this.currentFrame.getReceiver();
-        String argName = methodInfo.getParamName(0);
-        Instance arg = this.currentFrame.getParameterValueWithoutId(argName);
+        Instance arg = this.currentFrame.getParam(0);
 
         if(!arg.isa(this.integerClassInfo)){
             throw new InterpreterException("right argument is not Integer",
                     this.currentFrame.getPreviousFrame().getCurrentLocation());
         }
 
-        BigInteger left = self.getValue();
-        BigInteger right = ((IntegerInstance)arg).getValue();
-
-        this.currentFrame.setReturnValue(this.integerClassInfo.newInteger(left.multiply(right)));
+        this.currentFrame.setReturnValue(integerArithmetic('*', self, (IntegerInstance)arg));
 
     }
 
@@ -928,8 +1346,7 @@ public class InterpreterEngine
         FloatInstance self = (FloatInstance) this.currentFrame
                 .getReceiver();
 
-        String argName = methodInfo.getParamName(0);
-        Instance arg = this.currentFrame.getParameterValueWithoutId(argName);
+        Instance arg = this.currentFrame.getParam(0);
 
         //If not an integer nor a string
         if (!arg.isa(this.floatClassInfo) && !arg.isa(this.stringClassInfo) && !arg.isa(this.integerClassInfo)) {
@@ -938,15 +1355,13 @@ public class InterpreterEngine
         }
 
         if(arg.isa(this.stringClassInfo)){
-            String left = self.getValue().toString();
-            String right = ((StringInstance) arg).getValue();
-            this.currentFrame.setReturnValue(this.stringClassInfo.newString(left
-                    .concat(right)));
+            this.currentFrame.setReturnValue(this.stringClassInfo.concat(
+                    self.getValue().toString(), (StringInstance) arg));
         }else{
             Float left = self.getValue();
             Float right;
             if(arg.isa(this.integerClassInfo)){
-                right = ((IntegerInstance) arg).getValue().floatValue();
+                right = ((IntegerInstance) arg).floatValue();
             }else{
                 right = ((FloatInstance) arg).getValue();
             }
@@ -959,8 +1374,7 @@ public class InterpreterEngine
         FloatInstance self = (FloatInstance) this.currentFrame
                 .getReceiver();
 
-        String argName = methodInfo.getParamName(0);
-        Instance arg = this.currentFrame.getParameterValueWithoutId(argName);
+        Instance arg = this.currentFrame.getParam(0);
 
         //If not an integer nor a string
         if (!arg.isa(this.floatClassInfo) && !arg.isa(this.integerClassInfo)) {
@@ -972,7 +1386,7 @@ public class InterpreterEngine
         Float right;
 
         if(arg.isa(this.integerClassInfo)){
-            right = ((IntegerInstance) arg).getValue().floatValue();
+            right = ((IntegerInstance) arg).floatValue();
         }else{
             right = ((FloatInstance) arg).getValue();
         }
@@ -984,8 +1398,7 @@ public class InterpreterEngine
         FloatInstance self = (FloatInstance) this.currentFrame
                 .getReceiver();
 
-        String argName = methodInfo.getParamName(0);
-        Instance arg = this.currentFrame.getParameterValueWithoutId(argName);
+        Instance arg = this.currentFrame.getParam(0);
 
         //If not an integer nor a string
         if (!arg.isa(this.floatClassInfo) && !arg.isa(this.integerClassInfo)) {
@@ -996,7 +1409,7 @@ public class InterpreterEngine
         Float left = self.getValue();
         Float right;
         if(arg.isa(this.integerClassInfo)){
-            right = ((IntegerInstance) arg).getValue().floatValue();
+            right = ((IntegerInstance) arg).floatValue();
         }else{
             right = ((FloatInstance) arg).getValue();
         }
@@ -1008,8 +1421,7 @@ public class InterpreterEngine
         FloatInstance self = (FloatInstance) this.currentFrame
                 .getReceiver();
 
-        String argName = methodInfo.getParamName(0);
-        Instance arg = this.currentFrame.getParameterValueWithoutId(argName);
+        Instance arg = this.currentFrame.getParam(0);
 
         //If not an integer nor a string
         if (!arg.isa(this.floatClassInfo) && !arg.isa(this.stringClassInfo) && !arg.isa(this.integerClassInfo)) {
@@ -1020,7 +1432,7 @@ public class InterpreterEngine
         Float left = self.getValue();
         Float right;
         if(arg.isa(this.integerClassInfo)){
-            right = ((IntegerInstance) arg).getValue().floatValue();
+            right = ((IntegerInstance) arg).floatValue();
         }else{
             right = ((FloatInstance) arg).getValue();
         }
@@ -1028,7 +1440,7 @@ public class InterpreterEngine
             throw new InterpreterException("right argument cannot be 0",
                     this.currentFrame.getPreviousFrame().getCurrentLocation());
         }
-        this.currentFrame.setReturnValue(this.floatClassInfo.newFloat(left+right));
+        this.currentFrame.setReturnValue(this.floatClassInfo.newFloat(left/right));
     }
 
     public void floatToS(
@@ -0,0 +1,136 @@
+/* This file is part of Mino.
+ *
+ * See the NOTICE file distributed with this work for copyright information.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package mino.walker;
+
+import java.lang.invoke.*;
+import java.util.*;
+
+import mino.bytecode.*;
+import mino.jvm.*;
+import mino.language_mino.*;
+import mino.structure.*;
+
+/**
+ * Compiles every method body of a program, and the main program, to static
+ * methods of one hidden JVM class, so that calls bound by the class
+ * hierarchy analysis may invoke their method directly.
+ */
+public class JvmCompiler
+        extends Walker {
+
+    private final ClassTable classTable;
+
+    private final Map<NStms, String> bodyToNameMap = new LinkedHashMap<NStms, String>();
+
+    private String className;
+
+    public static Map<NStms, MethodHandle> compile(
+            Node tree,
+            ClassTable classTable,
+            JvmRuntime runtime) {
+
+        JvmCompiler compiler = new JvmCompiler(classTable);
+        compiler.visit(tree);
+        return compiler.define(runtime);
+    }
+
+    private JvmCompiler(
+            ClassTable classTable) {
+
+        this.classTable = classTable;
+    }
+
+    public void visit(
+            Node node) {
+
+        node.apply(this);
+    }
+
+    @Override
+    public void caseFile(
+            NFile node) {
+
+        visit(node.get_Classdefs());
+        this.bodyToNameMap.put(node.get_Stms(), "main program");
+    }
+
+    @Override
+    public void inClassdef(
+            NClassdef node) {
+
+        this.className = node.get_ClassName().getText();
+    }
+
+    @Override
+    public void outClassdef(
+            NClassdef node) {
+
+        this.className = null;
+    }
+
+    @Override
+    public void caseMember_Method(
+            NMember_Method node) {
+
+        this.bodyToNameMap.put(node.get_Stms(), this.className + "."
+                + node.get_Id().getText() + "()");
+    }
+
+    @Override
+    public void caseMember_Operator(
+            NMember_Operator node) {
+
+        this.bodyToNameMap.put(node.get_Stms(), this.className
+                + ".operator()");
+    }
+
+    /**
+     * Translates the collected bodies, once all of them are named, and
+     * returns the method handle of each body.
+     */
+    private Map<NStms, MethodHandle> define(
+            JvmRuntime runtime) {
+
+        JvmClassBuilder classBuilder = new JvmClassBuilder("Program", runtime);
+        Map<NStms, String> bodyToMethodNameMap = new IdentityHashMap<NStms, String>();
+        for (Map.Entry<NStms, String> entry : this.bodyToNameMap.entrySet()) {
+            bodyToMethodNameMap.put(entry.getKey(), classBuilder
+                    .declareMethod(entry.getKey(), entry.getValue()));
+        }
+
+        for (Map.Entry<NStms, String> entry : this.bodyToNameMap.entrySet()) {
+            classBuilder.addMethod(entry.getKey(), BytecodeCompiler.compile(
+                    entry.getValue(), entry.getKey(), this.classTable));
+        }
+
+        MethodHandles.Lookup lookup = classBuilder.define();
+        Map<NStms, MethodHandle> bodyToMethodHandleMap = new IdentityHashMap<NStms, MethodHandle>();
+        for (Map.Entry<NStms, String> entry : bodyToMethodNameMap.entrySet()) {
+            try {
+                bodyToMethodHandleMap.put(entry.getKey(), lookup.findStatic(
+                        lookup.lookupClass(), entry.getValue(),
+                        JvmClassBuilder.METHOD_TYPE));
+            }
+            catch (NoSuchMethodException | IllegalAccessException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        return bodyToMethodHandleMap;
+    }
+}
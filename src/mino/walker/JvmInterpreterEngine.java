@@ -0,0 +1,81 @@
+/* This file is part of Mino.
+ *
+ * See the NOTICE file distributed with this work for copyright information.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package mino.walker;
+
+import java.lang.invoke.*;
+import java.util.*;
+
+import mino.jvm.*;
+import mino.language_mino.*;
+import mino.structure.*;
+
+/**
+ * Interpreter that compiles the whole program to hidden JVM classes before
+ * running it, so that the JIT compiles Mino method bodies to machine code.
+ * Method invocation, frames and primitive methods remain those of the
+ * InterpreterEngine.
+ */
+public class JvmInterpreterEngine
+        extends InterpreterEngine {
+
+    private ClassTable classTable;
+
+    private Map<NStms, MethodHandle> bodyToMethodHandleMap;
+
+    private JvmRuntime runtime;
+
+    @Override
+    public void visit(
+            Node node,
+            ClassTable classTable) {
+
+        this.classTable = classTable;
+        super.visit(node, classTable);
+    }
+
+    /**
+     * Compiles the program once the engine is set up, as the generated code
+     * holds the inline caches of the engine and depends on which methods
+     * are memoized.
+     */
+    @Override
+    public void caseFile(
+            NFile node) {
+
+        this.runtime = new JvmRuntime(this, this.classTable);
+        this.bodyToMethodHandleMap = JvmCompiler.compile(node,
+                this.classTable, this.runtime);
+        super.caseFile(node);
+    }
+
+    @Override
+    public void executeBody(
+            NStms body) {
+
+        MethodHandle methodHandle = this.bodyToMethodHandleMap.get(body);
+        try {
+            methodHandle.invokeExact(this.runtime, getCurrentFrame());
+        }
+        catch (RuntimeException | Error e) {
+            throw e;
+        }
+        catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/* This file is part of Mino.
+ *
+ * See the NOTICE file distributed with this work for copyright information.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package mino.walker;
+
+import java.math.*;
+
+import mino.exception.*;
+import mino.language_mino.*;
+import mino.structure.*;
+
+/**
+ * Resolves, once and for all, each literal to its constant instance and
+ * each class name of a new or isa expression to its ClassInfo. The
+ * interpreter engines read the resolved values from the ClassTable instead
+ * of parsing literals and looking up class names on every evaluation.
+ */
+public class Linker
+        extends Walker {
+
+    private final ClassTable classTable;
+
+    private IntegerClassInfo integerClassInfo;
+
+    private StringClassInfo stringClassInfo;
+
+    private FloatClassInfo floatClassInfo;
+
+    public static void link(
+            Node tree,
+            ClassTable classTable) {
+
+        new Linker(classTable).visit(tree);
+    }
+
+    private Linker(
+            ClassTable classTable) {
+
+        this.classTable = classTable;
+    }
+
+    public void visit(
+            Node node) {
+
+        node.apply(this);
+    }
+
+    @Override
+    public void caseFile(
+            NFile node) {
+
+        this.integerClassInfo = (IntegerClassInfo) this.classTable
+                .getIntegerClassInfoOrNull();
+        this.stringClassInfo = (StringClassInfo) this.classTable
+                .getStringClassInfoOrNull();
+        this.floatClassInfo = (FloatClassInfo) this.classTable
+                .getFloatClassInfoOrNull();
+
+        visit(node.get_Classdefs());
+        visit(node.get_Stms());
+    }
+
+    @Override
+    public void caseTerm_Num(
+            NTerm_Num node) {
+
+        this.classTable.setLiteralValue(node.get_Number(), this.integerClassInfo
+                .internInteger(new BigInteger(node.get_Number().getText())));
+    }
+
+    @Override
+    public void caseTerm_String(
+            NTerm_String node) {
+
+        String string = node.get_String().getText();
+        this.classTable.setLiteralValue(node.get_String(), this.stringClassInfo
+                .newString(string.substring(1, string.length() - 1)));
+    }
+
+    @Override
+    public void caseTerm_Float(
+            NTerm_Float node) {
+
+        this.classTable.setLiteralValue(node.get_Float(), this.floatClassInfo
+                .internFloat(Float.parseFloat(node.get_Float().getText())));
+    }
+
+    @Override
+    public void caseTerm_New(
+            NTerm_New node) {
+
+        ClassInfo classInfo = this.classTable.get(node.get_ClassName());
+
+        String name = classInfo.getName();
+        if (name.equals("Boolean") || name.equals("Integer")
+                || name.equals("String")) {
+            throw new InterpreterException("invalid use of new operator",
+                    node.get_NewKwd());
+        }
+
+        this.classTable.setReferencedClass(node.get_ClassName(), classInfo);
+    }
+
+    @Override
+    public void caseExp_Isa(
+            NExp_Isa node) {
+
+        visit(node.get_Exp());
+        this.classTable.setReferencedClass(node.get_ClassName(),
+                this.classTable.get(node.get_ClassName()));
+    }
+}
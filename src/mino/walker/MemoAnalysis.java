@@ -0,0 +1,88 @@
+/* This file is part of Mino.
+ *
+ * See the NOTICE file distributed with this work for copyright information.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package mino.walker;
+
+import mino.language_mino.*;
+import mino.structure.*;
+
+/**
+ * Decides whether the results of a pure method may be cached. Its return
+ * type must be a value class, as a cached instance of another class would
+ * be the same object for every call, where running the method again may
+ * create a new one. A method that neither calls a method nor loops also
+ * costs less to run again than to look up.
+ */
+public class MemoAnalysis
+        extends Walker {
+
+    private boolean costly;
+
+    public static boolean isCacheable(
+            MethodInfo methodInfo) {
+
+        ClassInfo returnType = methodInfo.getClassReturnParam();
+        if (!(returnType instanceof IntegerClassInfo
+                || returnType instanceof FloatClassInfo
+                || returnType instanceof StringClassInfo
+                || returnType instanceof BooleanClassInfo)) {
+            return false;
+        }
+
+        MemoAnalysis memoAnalysis = new MemoAnalysis();
+        memoAnalysis.visit(methodInfo.getBody());
+        return memoAnalysis.costly;
+    }
+
+    private MemoAnalysis() {
+
+    }
+
+    public void visit(
+            Node node) {
+
+        node.apply(this);
+    }
+
+    @Override
+    public void inCall(
+            NCall node) {
+
+        this.costly = true;
+    }
+
+    @Override
+    public void inSelfCall(
+            NSelfCall node) {
+
+        this.costly = true;
+    }
+
+    @Override
+    public void inStm_While(
+            NStm_While node) {
+
+        this.costly = true;
+    }
+
+    @Override
+    public void inStm_For(
+            NStm_For node) {
+
+        this.costly = true;
+    }
+}
@@ -0,0 +1,146 @@
+/* This file is part of Mino.
+ *
+ * See the NOTICE file distributed with this work for copyright information.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package mino.walker;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.util.*;
+
+/**
+ * Buffered standard output of a Mino program. Lines are encoded in UTF-8
+ * straight into a direct ByteBuffer, which is written to the standard
+ * output channel when it holds more than the size threshold, by a timer
+ * thread at each time interval while output is pending, and when the
+ * program ends, whether normally or not.
+ */
+public class OutputBuffer {
+
+    public static final int DEFAULT_SIZE = 32 * 1024;
+
+    public static final long DEFAULT_INTERVAL = 1000;
+
+    private static final int MIN_SIZE = 64;
+
+    private static final char[] LINE_SEPARATOR = System.lineSeparator()
+            .toCharArray();
+
+    private final FileChannel channel;
+
+    private final ByteBuffer buffer;
+
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8
+            .newEncoder().onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    private final Timer timer;
+
+    public OutputBuffer() {
+
+        this(DEFAULT_SIZE, DEFAULT_INTERVAL);
+    }
+
+    /**
+     * Creates a buffer that is written every size bytes, and every interval
+     * milliseconds while it holds output. An interval of 0 disables the
+     * timer.
+     */
+    public OutputBuffer(
+            int size,
+            long interval) {
+
+        this.channel = new FileOutputStream(FileDescriptor.out).getChannel();
+        this.buffer = ByteBuffer.allocateDirect(Math.max(size, MIN_SIZE));
+
+        if (interval > 0) {
+            // a daemon thread does not keep the program alive
+            this.timer = new Timer("mino-output-flush", true);
+            this.timer.schedule(new TimerTask() {
+
+                @Override
+                public void run() {
+
+                    flush();
+                }
+            }, interval, interval);
+        }
+        else {
+            this.timer = null;
+        }
+    }
+
+    public synchronized void println(
+            String line) {
+
+        encode(CharBuffer.wrap(line), false);
+        encode(CharBuffer.wrap(LINE_SEPARATOR), true);
+    }
+
+    private void encode(
+            CharBuffer chars,
+            boolean endOfLine) {
+
+        while (true) {
+            CoderResult result = this.encoder.encode(chars, this.buffer,
+                    endOfLine);
+            if (result.isOverflow()) {
+                write();
+            }
+            else {
+                break;
+            }
+        }
+
+        if (endOfLine) {
+            while (this.encoder.flush(this.buffer).isOverflow()) {
+                write();
+            }
+            this.encoder.reset();
+        }
+    }
+
+    /**
+     * Writes the buffered output. Anything the program printed through
+     * System.out is written first.
+     */
+    public synchronized void flush() {
+
+        System.out.flush();
+        if (this.buffer.position() > 0) {
+            write();
+        }
+    }
+
+    private void write() {
+
+        this.buffer.flip();
+        try {
+            while (this.buffer.hasRemaining()) {
+                this.channel.write(this.buffer);
+            }
+        }
+        catch (IOException e) {
+            throw new RuntimeException("cannot write to standard output: "
+                    + e.getMessage(), e);
+        }
+        finally {
+            this.buffer.clear();
+        }
+    }
+}
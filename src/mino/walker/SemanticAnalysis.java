@@ -95,10 +95,11 @@ public class SemanticAnalysis
 
         visit(node.get_Classdefs());
 
-        this.currentScope = new Scope(null);
+        this.currentScope = new Scope();
 
         // execute statements
         visit(node.get_Stms());
+        this.classTable.setMainLocalCount(this.currentScope.getSlotCount());
     }
 
     private Token getOperatorToken(
@@ -116,6 +117,9 @@ public class SemanticAnalysis
         visit(node);
         ClassInfo expType = this.expType;
         this.expType = null;
+        if (expType != null) {
+            this.classTable.setExpressionType(node, expType);
+        }
         return expType;
     }
 
@@ -131,7 +135,7 @@ public class SemanticAnalysis
 
     private void verifyParameters(
             LinkedList<ClassInfo> args,
-            LinkedList<VariableInfo> parameters,
+            List<VariableInfo> parameters,
             Token location){
 
         Iterator<ClassInfo> argsIterator = args.iterator();
@@ -157,6 +161,58 @@ public class SemanticAnalysis
         }
     }
 
+    /**
+     * Rejects a call made by a pure method when the invoked method, or one
+     * of its overriding methods in the subclasses of the receiver type, is
+     * impure.
+     */
+    private void verifyPureCall(
+            ClassInfo receiverType,
+            MethodInfo invokedMethod,
+            Token location){
+
+        MethodInfo currentMethod = this.currentScope == null ? null
+                : this.currentScope.getCurrentMethod();
+
+        if(currentMethod == null || !currentMethod.isPure()){
+            return;
+        }
+
+        List<MethodInfo> methods = new LinkedList<>();
+        methods.add(invokedMethod);
+        if(receiverType != null){
+            for(ClassInfo subType : receiverType.getSubTypes()){
+                methods.add(subType.getMethodTable()
+                        .getMethodInfoOrNull(invokedMethod.getName()));
+            }
+        }
+
+        for(MethodInfo methodInfo : methods){
+            if(!methodInfo.isPure()){
+                throw new SemanticException("pure method " + currentMethod.getName()
+                        + " cannot call impure method "
+                        + methodInfo.getClassInfo().getName() + "."
+                        + methodInfo.getName(), location);
+            }
+        }
+    }
+
+    private void verifyPureOperator(
+            ClassInfo left,
+            Token operatorToken){
+
+        if(left == null){
+            return;
+        }
+
+        MethodInfo invokedMethod = left.getMethodTable()
+                .getMethodInfoOrNull(operatorToken.getText());
+
+        if(invokedMethod != null){
+            verifyPureCall(left, invokedMethod, operatorToken);
+        }
+    }
+
     @Override
     public void inClassdef(
             NClassdef node) {
@@ -177,12 +233,13 @@ public class SemanticAnalysis
 
         MethodInfo methodInfo = this.currentClassInfo.getMethodTable().getMethodInfo(node.get_Id());
 
-        this.currentScope = new Scope(null, methodInfo);
+        this.currentScope = new Scope(methodInfo);
 
         for(VariableInfo varInfo : methodInfo.getParams()){
             this.currentScope.addVariable(varInfo);
         }
         visit(node.get_Stms());
+        methodInfo.setLocalCount(this.currentScope.getSlotCount());
         this.currentScope = null;
     }
 
@@ -193,11 +250,12 @@ public class SemanticAnalysis
         Token operatorToken = getOperatorToken(node.get_Operator());
         MethodInfo methodInfo = this.currentClassInfo.getMethodTable().getMethodInfo(operatorToken);
 
-        this.currentScope = new Scope(null, methodInfo);
+        this.currentScope = new Scope(methodInfo);
         for(VariableInfo varInfo : methodInfo.getParams()){
             this.currentScope.addVariable(varInfo);
         }
         visit(node.get_Stms());
+        methodInfo.setLocalCount(this.currentScope.getSlotCount());
         this.currentScope = null;
     }
 
@@ -328,6 +386,10 @@ public class SemanticAnalysis
             NTerm_Var node) {
 
         VariableInfo className = this.currentScope.getVariable(node.get_Id());
+        this.classTable.setVariableSlot(node.get_Id(), className.getSlot());
+        if(className.isCounter()){
+            this.classTable.setCounter(node.get_Id());
+        }
         this.expType = className.getExplicitType();
     }
 
@@ -335,19 +397,7 @@ public class SemanticAnalysis
     public void caseTerm_Field(
             NTerm_Field node) {
 
-        NClassName className = null;
-        for (FieldInfo fieldInfo : this.currentClassInfo.getFieldTable().getFields()) {
-            if(node.get_FieldName().getText().equals(fieldInfo.getName())){
-                className = fieldInfo.getClassName();
-                break;
-            }
-        }
-
-        if(className == null){
-            throw new InterpreterException("Field "+ node.get_FieldName().getText() +" does not have a class name", node.get_FieldName());
-        }
-
-        this.expType = this.classTable.get(className);
+        visit(node.get_FieldName());
     }
 
     @Override
@@ -370,6 +420,8 @@ public class SemanticAnalysis
     public void caseExp_Is(
             NExp_Is node) {
 
+        getExpType(node.get_Exp());
+        getExpType(node.get_AddExp());
         this.expType = this.booleanClassInfo;
     }
 
@@ -380,6 +432,7 @@ public class SemanticAnalysis
         ClassInfo left = getExpType(node.get_Exp());
         ClassInfo right = getExpType(node.get_AddExp());
         Token eq = node.get_Eq();
+        verifyPureOperator(left, eq);
 
         if(left.isa(this.stringClassInfo) && !right.isa(this.stringClassInfo)){
             throw new SemanticException("Cannot compare String with something else", eq);
@@ -399,6 +452,7 @@ public class SemanticAnalysis
         ClassInfo left = getExpType(node.get_Exp());
         ClassInfo right = getExpType(node.get_AddExp());
         Token nEq = node.get_NotEq();
+        verifyPureOperator(left, nEq);
 
         if(left.isa(this.stringClassInfo) && !right.isa(this.stringClassInfo)){
             throw new SemanticException("Cannot compare String with something else", nEq);
@@ -417,6 +471,7 @@ public class SemanticAnalysis
         ClassInfo left = getExpType(node.get_Exp());
         ClassInfo right = getExpType(node.get_AddExp());
         Token lt = node.get_Lt();
+        verifyPureOperator(left, lt);
 
         booleanComparator(left, right, lt);
     }
@@ -428,6 +483,7 @@ public class SemanticAnalysis
         ClassInfo left = getExpType(node.get_Exp());
         ClassInfo right = getExpType(node.get_AddExp());
         Token lte = node.get_Lte();
+        verifyPureOperator(left, lte);
 
         booleanComparator(left, right, lte);
     }
@@ -439,6 +495,7 @@ public class SemanticAnalysis
         ClassInfo left = getExpType(node.get_Exp());
         ClassInfo right = getExpType(node.get_AddExp());
         Token gt = node.get_Gt();
+        verifyPureOperator(left, gt);
 
         booleanComparator(left, right, gt);
     }
@@ -449,6 +506,7 @@ public class SemanticAnalysis
         ClassInfo left = getExpType(node.get_Exp());
         ClassInfo right = getExpType(node.get_AddExp());
         Token gte = node.get_Gte();
+        verifyPureOperator(left, gte);
 
         booleanComparator(left, right, gte);
     }
@@ -474,6 +532,7 @@ public class SemanticAnalysis
     public void caseExp_Isa(
             NExp_Isa node) {
 
+        getExpType(node.get_Exp());
         this.expType = this.booleanClassInfo;
     }
 
@@ -487,9 +546,16 @@ public class SemanticAnalysis
         if(node.get_ClassNameOpt() instanceof  NClassNameOpt_One){
             NClassName explicitType = ((NClassNameOpt_One)node.get_ClassNameOpt()).get_ClassName();
             left = this.classTable.get(explicitType);
-            this.currentScope.addVariable(new VariableInfo(node.get_Id().getText(), left, node.get_Id()));
+            VariableInfo leftInfo = new VariableInfo(node.get_Id().getText(), left, node.get_Id());
+            this.currentScope.addVariable(leftInfo);
+            this.classTable.setVariableSlot(node.get_Id(), leftInfo.getSlot());
         }else{
             VariableInfo leftInfo = this.currentScope.getVariable(node.get_Id());
+            if(leftInfo.isCounter()){
+                throw new SemanticException("Cannot assign the counter " + node.get_Id().getText()
+                        + " of a for loop", node.get_Id());
+            }
+            this.classTable.setVariableSlot(node.get_Id(), leftInfo.getSlot());
             left = leftInfo.getExplicitType();
         }
 
@@ -516,6 +582,13 @@ public class SemanticAnalysis
     public void caseStm_FieldAssign(
             NStm_FieldAssign node) {
 
+        MethodInfo currentMethod = this.currentScope == null ? null
+                : this.currentScope.getCurrentMethod();
+        if(currentMethod != null && currentMethod.isPure()){
+            throw new SemanticException("pure method " + currentMethod.getName()
+                    + " cannot assign a field", node.get_FieldName());
+        }
+
         ClassInfo explicitType = getExpType(node.get_FieldName());
         ClassInfo expType = getExpType(node.get_Exp());
 
@@ -529,19 +602,10 @@ public class SemanticAnalysis
     public void caseFieldName(
             NFieldName node) {
 
-        NClassName className = null;
-        for (FieldInfo fieldInfo : this.currentClassInfo.getFieldTable().getFields()) {
-            if(node.getText().equals(fieldInfo.getName())){
-                className = fieldInfo.getClassName();
-                break;
-            }
-        }
-
-        if(className == null){
-            throw new InterpreterException("Field "+ node.getText() +" does not have a class name", node);
-        }
+        FieldInfo fieldInfo = this.currentClassInfo.getFieldTable().getFieldInfo(node);
+        this.classTable.setFieldOffset(node, fieldInfo.getOffset());
 
-        this.expType = this.classTable.get(className);
+        this.expType = this.classTable.get(fieldInfo.getClassName());
     }
 
     @Override
@@ -554,10 +618,42 @@ public class SemanticAnalysis
             throw new SemanticException("Condition must be a Boolean", node.get_LPar());
         }
 
-        Scope oldScope = this.currentScope;
-        this.currentScope = new Scope(oldScope);
+        this.currentScope.openBlock();
         visit(node.get_Stms());
-        this.currentScope = oldScope;
+        this.currentScope.closeBlock();
+    }
+
+    @Override
+    public void caseStm_For(
+            NStm_For node) {
+
+        verifyCounterBound(node.get_From(), "Start", node.get_LPar());
+        verifyCounterBound(node.get_To(), "End", node.get_LPar());
+        if(node.get_StepOpt() instanceof NStepOpt_One){
+            verifyCounterBound(((NStepOpt_One) node.get_StepOpt()).get_Exp(),
+                    "Step", node.get_LPar());
+        }
+
+        this.currentScope.openBlock();
+        VariableInfo counter = new VariableInfo(node.get_Id().getText(),
+                this.integerClassInfo, node.get_Id());
+        counter.setCounter();
+        this.currentScope.addVariable(counter);
+        this.classTable.setVariableSlot(node.get_Id(), counter.getSlot());
+        visit(node.get_Stms());
+        this.currentScope.closeBlock();
+    }
+
+    private void verifyCounterBound(
+            NExp exp,
+            String name,
+            Token location){
+
+        ClassInfo expType = getExpType(exp);
+
+        if(expType == null || !expType.isa(this.integerClassInfo)){
+            throw new SemanticException(name + " of for loop must be an Integer", location);
+        }
     }
 
     @Override
@@ -570,10 +666,15 @@ public class SemanticAnalysis
             throw new SemanticException("Condition must be a Boolean", node.get_LPar());
         }
 
-        Scope oldScope = this.currentScope;
-        this.currentScope = new Scope(oldScope);
+        this.currentScope.openBlock();
         visit(node.get_Stms());
-        this.currentScope = oldScope;
+        this.currentScope.closeBlock();
+
+        if (node.get_ElseOpt() instanceof NElseOpt_One) {
+            this.currentScope.openBlock();
+            visit(((NElseOpt_One) node.get_ElseOpt()).get_Else().get_Stms());
+            this.currentScope.closeBlock();
+        }
     }
 
     @Override
@@ -588,6 +689,7 @@ public class SemanticAnalysis
             NCall node) {
 
         List<NExp> expList = getExpList(node.get_ExpListOpt());
+        this.classTable.setArguments(node.get_Id(), expList);
 
         ClassInfo receiver = getExpType(node.get_RightUnaryExp());
         LinkedList<ClassInfo> argsList = new LinkedList<>();
@@ -605,6 +707,7 @@ public class SemanticAnalysis
         }
 
         verifyParameters(argsList, invokedMethod.getParams(), node.get_Id());
+        verifyPureCall(receiver, invokedMethod, node.get_Id());
 
         if(invokedMethod.getClassReturnParam() != null){
             this.expType = invokedMethod.getClassReturnParam();
@@ -625,6 +728,7 @@ public class SemanticAnalysis
             NSelfCall node) {
 
         List<NExp> expList = getExpList(node.get_ExpListOpt());
+        this.classTable.setArguments(node.get_Id(), expList);
         MethodInfo methodInfo;
 
         if(this.currentClassInfo == null && this.currentScope.getCurrentMethod() == null){
@@ -646,6 +750,7 @@ public class SemanticAnalysis
         }
 
         verifyParameters(argsList, methodInfo.getParams(), node.get_Id());
+        verifyPureCall(this.currentClassInfo, methodInfo, node.get_Id());
     }
 
     @Override
@@ -665,6 +770,7 @@ public class SemanticAnalysis
         if(invokedMethod == null){
             throw new SemanticException("Function of operator + was not defined on" + left.getName(), node.get_Plus());
         }
+        verifyPureCall(left, invokedMethod, node.get_Plus());
         if(!right.isa(invokedMethod.getParams().get(0).getExplicitType())){
             throw new SemanticException("Right argument must be a " + invokedMethod.getParams().get(0).getExplicitType().getName(), node.get_Plus());
         }
@@ -721,6 +827,7 @@ public class SemanticAnalysis
         if(invokedMethod == null){
             throw new SemanticException("Function of operator * was not defined on" + left.getName(), node.get_Mult());
         }
+        verifyPureCall(left, invokedMethod, node.get_Mult());
         if(!right.isa(invokedMethod.getParams().get(0).getExplicitType())){
             throw new SemanticException("Right argument must be a " + invokedMethod.getParams().get(0).getExplicitType().getName(), node.get_Mult());
         }
@@ -765,6 +872,7 @@ public class SemanticAnalysis
         if(invokedMethod == null){
             throw new SemanticException("Function of operator % was not defined on" + left.getName(), node.get_Modul());
         }
+        verifyPureCall(left, invokedMethod, node.get_Modul());
         if(!right.isa(invokedMethod.getParams().get(0).getExplicitType())){
             throw new SemanticException("Right argument must be a " + invokedMethod.getParams().get(0).getExplicitType().getName(), node.get_Modul());
         }
@@ -808,6 +916,7 @@ public class SemanticAnalysis
         if(invokedMethod == null){
             throw new SemanticException("Function of operator + was not defined on" + left.getName(), node.get_Div());
         }
+        verifyPureCall(left, invokedMethod, node.get_Div());
         if(!right.isa(invokedMethod.getParams().get(0).getExplicitType())){
             throw new SemanticException("Right argument must be a " + invokedMethod.getParams().get(0).getExplicitType().getName(), node.get_Div());
         }
@@ -829,6 +938,14 @@ public class SemanticAnalysis
         }
     }
 
+    @Override
+    public void caseLeftUnaryExp_Not(
+            NLeftUnaryExp_Not node) {
+
+        getExpType(node.get_LeftUnaryExp());
+        this.expType = this.booleanClassInfo;
+    }
+
     @Override
     public void caseAddExp_Min(
             NAddExp_Min node) {
@@ -846,6 +963,7 @@ public class SemanticAnalysis
         if(invokedMethod == null){
             throw new SemanticException("Function of operator + was not defined on" + left.getName(), node.get_Min());
         }
+        verifyPureCall(left, invokedMethod, node.get_Min());
         if(!right.isa(invokedMethod.getParams().get(0).getExplicitType())){
             throw new SemanticException("Right argument must be a " + invokedMethod.getParams().get(0).getExplicitType().getName(),
                                 node.get_Min());
@@ -911,6 +1029,49 @@ public class SemanticAnalysis
                         + ". Given : " + expType.getName(), node.get_ReturnKwd());
             }
             this.expType = expType;
+
+            NId tailCall = getCallId(exp);
+            if (tailCall != null) {
+                this.classTable.setTailCall(tailCall);
+            }
+        }
+    }
+
+    /**
+     * Returns the method name of an expression that is only a call, possibly
+     * parenthesized, or null for any other expression.
+     */
+    private static NId getCallId(
+            NExp exp) {
+
+        if (!(exp instanceof NExp_Simple)) {
+            return null;
         }
+        NAddExp addExp = ((NExp_Simple) exp).get_AddExp();
+        if (!(addExp instanceof NAddExp_Simple)) {
+            return null;
+        }
+        NMultExp multExp = ((NAddExp_Simple) addExp).get_MultExp();
+        if (!(multExp instanceof NMultExp_Simple)) {
+            return null;
+        }
+        NLeftUnaryExp leftUnaryExp = ((NMultExp_Simple) multExp).get_LeftUnaryExp();
+        if (!(leftUnaryExp instanceof NLeftUnaryExp_Simple)) {
+            return null;
+        }
+        NRightUnaryExp rightUnaryExp = ((NLeftUnaryExp_Simple) leftUnaryExp).get_RightUnaryExp();
+        if (rightUnaryExp instanceof NRightUnaryExp_Call) {
+            return ((NRightUnaryExp_Call) rightUnaryExp).get_Call().get_Id();
+        }
+
+        NTerm term = ((NRightUnaryExp_Simple) rightUnaryExp).get_Term();
+        if (term instanceof NTerm_SelfCall) {
+            return ((NTerm_SelfCall) term).get_SelfCall().get_Id();
+        }
+        else if (term instanceof NTerm_Par) {
+            return getCallId(((NTerm_Par) term).get_Exp());
+        }
+
+        return null;
     }
 }
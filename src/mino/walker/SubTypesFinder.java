@@ -39,6 +39,7 @@ public class SubTypesFinder extends Walker{
             NFile node) {
 
         visit(node.get_Classdefs());
+        this.classTable.numberClasses();
 
         this.classTable.printSubTypesTables();
     }
@@ -48,6 +49,9 @@ public class SubTypesFinder extends Walker{
             NClassdef node) {
 
         ClassInfo childClassInfo =  this.classTable.get(node.get_ClassName());
-        childClassInfo.addSubTypes(childClassInfo);
+        ClassInfo superClassInfo = childClassInfo.getSuperClassInfoOrNull();
+        if (superClassInfo != null) {
+            superClassInfo.addSubClass(childClassInfo);
+        }
     }
 }
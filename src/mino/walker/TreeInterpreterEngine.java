@@ -0,0 +1,70 @@
+/* This file is part of Mino.
+ *
+ * See the NOTICE file distributed with this work for copyright information.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package mino.walker;
+
+import java.util.*;
+
+import mino.execution.*;
+import mino.language_mino.*;
+import mino.structure.*;
+
+/**
+ * Interpreter that runs each method body as a tree of executable nodes
+ * instead of walking the syntax tree. A body is translated the first time it
+ * is executed; primitive methods and frame handling are inherited from
+ * InterpreterEngine. When specializing, operator, comparison and call nodes
+ * adapt themselves to the classes they observe at run time.
+ */
+public class TreeInterpreterEngine
+        extends InterpreterEngine {
+
+    private final Map<NStms, BlockNode> bodyToBlockNodeMap = new IdentityHashMap<NStms, BlockNode>();
+
+    private final boolean specialize;
+
+    private ExecutionTreeBuilder executionTreeBuilder;
+
+    public TreeInterpreterEngine(
+            boolean specialize) {
+
+        this.specialize = specialize;
+    }
+
+    @Override
+    public void visit(
+            Node node,
+            ClassTable classTable) {
+
+        this.executionTreeBuilder = new ExecutionTreeBuilder(this, classTable,
+                this.specialize);
+        super.visit(node, classTable);
+    }
+
+    @Override
+    public void executeBody(
+            NStms body) {
+
+        BlockNode blockNode = this.bodyToBlockNodeMap.get(body);
+        if (blockNode == null) {
+            blockNode = this.executionTreeBuilder.build(body);
+            this.bodyToBlockNodeMap.put(body, blockNode);
+        }
+
+        blockNode.execute(getCurrentFrame());
+    }
+}
@@ -0,0 +1,51 @@
+#!/bin/sh
+#
+# This file is part of Mino.
+#
+# See the NOTICE file distributed with this work for copyright information.
+#
+# Licensed under the Apache License, Version 2.0 (the "License");
+# you may not use this file except in compliance with the License.
+# You may obtain a copy of the License at
+#
+#     http://www.apache.org/licenses/LICENSE-2.0
+#
+# Unless required by applicable law or agreed to in writing, software
+# distributed under the License is distributed on an "AS IS" BASIS,
+# WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+# See the License for the specific language governing permissions and
+# limitations under the License.
+
+# Runs every example program on each engine, and compares its output,
+# errors included, with the output of the walker engine:
+#
+#   sh test/compare-engines.sh [CLASSPATH]
+#
+# The classpath defaults to src, where the compiled classes are. The exit
+# status is 1 when an engine differs.
+
+cd "$(dirname "$0")/.." || exit 2
+classpath=${1:-src}
+java=${JAVA:-java}
+expected=$(mktemp)
+actual=$(mktemp)
+trap 'rm -f "$expected" "$actual"' EXIT
+
+status=0
+for program in example/*.mino; do
+    "$java" -cp "$classpath" mino.MinoInterpreter --engine=walker \
+        "$program" > "$expected" 2>&1
+    for engine in tree specializing vm jvm; do
+        "$java" -cp "$classpath" mino.MinoInterpreter --engine=$engine \
+            "$program" > "$actual" 2>&1
+        if diff "$expected" "$actual" > /dev/null; then
+            echo "ok    $engine $program"
+        else
+            echo "FAIL  $engine $program"
+            diff "$expected" "$actual" | head -20
+            status=1
+        fi
+    done
+done
+
+exit $status